@@ -0,0 +1,44 @@
+package bait.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import bait.automata.Alphabet;
+import bait.automata.AutomatonParser;
+import bait.automata.AutomatonParser.ParseError;
+import bait.automata.BuchiAutomaton;
+import bait.automata.ParsedAutomaton;
+import bait.collections.Interner;
+
+/**
+ * Automata used as inputs by the benchmarks. The paths are relative to the root
+ * of the project, which is the working directory of the jmh task.
+ */
+final class Fixtures {
+
+    static final String AUTOMATA_DIRECTORY = "test-automata/";
+
+    /**
+     * @return the two automata at the given paths, built over the union of their
+     *         alphabets as the runner does
+     */
+    static BuchiAutomaton[] pair(String firstPath, String secondPath) throws IOException, ParseError {
+        Interner<String> names = new Interner<>();
+        ParsedAutomaton first = AutomatonParser.read(Path.of(AUTOMATA_DIRECTORY + firstPath), names);
+        ParsedAutomaton second = AutomatonParser.read(Path.of(AUTOMATA_DIRECTORY + secondPath), names);
+        Alphabet alphabet = Alphabet.merge(first.alphabet(), second.alphabet());
+        return new BuchiAutomaton[] { first.build(alphabet), second.build(alphabet) };
+    }
+
+    /**
+     * @return the automaton at the given path, built over its own alphabet
+     */
+    static BuchiAutomaton single(String path) throws IOException, ParseError {
+        ParsedAutomaton parsed = AutomatonParser.read(Path.of(AUTOMATA_DIRECTORY + path), new Interner<>());
+        return parsed.build(parsed.alphabet());
+    }
+
+    private Fixtures() {
+    }
+
+}
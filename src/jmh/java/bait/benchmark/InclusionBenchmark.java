@@ -0,0 +1,66 @@
+package bait.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import bait.algorithm.BAInc;
+import bait.automata.BuchiAutomaton;
+import bait.preprocessing.Preprocessor;
+import bait.utility.Args;
+
+/**
+ * The whole inclusion check, {@link BAInc#run}, on pairs of automata of the
+ * tests. The automata are read and preprocessed once per trial, as the runner
+ * does before timing the algorithm, so only the fixpoints and the final checks
+ * are measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+public class InclusionBenchmark {
+
+    // the two automata of each pair are separated by a comma
+    @Param({ "identityA.ba,identityB.ba", "concur11A.ba,concur11B.ba", "petersonA.ba,petersonB.ba",
+            "philsV2A.ba,philsV2B.ba",
+            "All_Sturmian_words_contain_cubes_sub.autfilt.ba,All_Sturmian_words_contain_cubes_sup.autfilt.ba",
+            "The_lazy_Ostrowski_representation_is_unique_sub.autfilt.ba,The_lazy_Ostrowski_representation_is_unique_sup.autfilt.ba" })
+    public String pair;
+
+    @Param({ "kleene", "worklist" })
+    public String engine;
+
+    private Args args;
+    private BuchiAutomaton a;
+    private BuchiAutomaton b;
+
+    @Setup
+    public void setUp() throws Exception {
+        String[] paths = pair.split(",");
+        BuchiAutomaton[] automata = Fixtures.pair(paths[0], paths[1]);
+        args = Args.of(Fixtures.AUTOMATA_DIRECTORY + paths[0], Fixtures.AUTOMATA_DIRECTORY + paths[1]);
+        args.setEngine(Args.Engine.valueOf(engine.toUpperCase()));
+        Preprocessor preprocessor = new Preprocessor(args);
+        a = preprocessor.preprocess(automata[0], "A");
+        b = preprocessor.preprocess(automata[1], "B");
+    }
+
+    @Benchmark
+    public boolean run() {
+        return new BAInc(args).run(a, b);
+    }
+
+}
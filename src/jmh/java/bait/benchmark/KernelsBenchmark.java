@@ -0,0 +1,100 @@
+package bait.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import bait.algorithm.Antichain;
+import bait.automata.BuchiAutomaton;
+import bait.automata.Symbol;
+import bait.collections.StateRelation;
+import bait.collections.StateSet;
+import bait.comparator.XInclusionComparator;
+import bait.utility.Algorithms;
+
+/**
+ * The operations on sets and relations of states that the fixpoints spend most
+ * of their time in, on the transitions of one automaton. The inputs are fixed
+ * by the automaton and by a seeded random generator, so that the results of
+ * different commits can be compared.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class KernelsBenchmark {
+
+    private static final int NUMBER_OF_SETS = 512;
+
+    @Param({ "petersonB.ba", "philsV2B.ba" })
+    public String automaton;
+
+    private BuchiAutomaton ba;
+    private StateRelation transitions;
+    private StateRelation firstSymbolTransitions;
+    private List<StateSet> sets;
+
+    @Setup
+    public void setUp() throws Exception {
+        ba = Fixtures.single(automaton);
+        transitions = StateRelation.EMPTY;
+        for (StateRelation context : ba.context().values())
+            transitions = Algorithms.union(transitions, context);
+        Symbol firstSymbol = ba.alphabet().iterator().next();
+        firstSymbolTransitions = ba.context().get(firstSymbol);
+        Random random = new Random(42);
+        sets = new ArrayList<>(NUMBER_OF_SETS);
+        for (int i = 0; i < NUMBER_OF_SETS; i++) {
+            StateSet.Builder set = new StateSet.Builder();
+            for (int s = 0; s < ba.numberOfStates(); s++)
+                if (random.nextInt(4) == 0)
+                    set.add(s);
+            sets.add(set.build());
+        }
+    }
+
+    @Benchmark
+    public int antichainGlbWith() {
+        Antichain<StateSet> antichain = new Antichain<>(new XInclusionComparator());
+        for (StateSet set : sets)
+            antichain.glbWith(set);
+        return antichain.size();
+    }
+
+    @Benchmark
+    public StateRelation compose() {
+        return Algorithms.compose(transitions, transitions);
+    }
+
+    @Benchmark
+    public StateRelation transitiveClosure() {
+        return Algorithms.transitiveClosure(transitions);
+    }
+
+    @Benchmark
+    public boolean isSubset() {
+        return Algorithms.isSubset(firstSymbolTransitions, transitions);
+    }
+
+    @Benchmark
+    public Set<bait.automata.State> post() {
+        return bait.automata.State.post(ba.states());
+    }
+
+}
@@ -0,0 +1,47 @@
+package bait.benchmark;
+
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import bait.automata.AutomatonParser;
+import bait.automata.BuchiAutomaton;
+import bait.automata.ParsedAutomaton;
+import bait.collections.Interner;
+
+/**
+ * Reading an automaton in the '.ba' format and building it over its alphabet.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class ParsingBenchmark {
+
+    @Param({ "petersonA.ba", "philsV2A.ba", "The_lazy_Ostrowski_representation_is_unique_sup.autfilt.ba" })
+    public String automaton;
+
+    @Benchmark
+    public ParsedAutomaton parse() throws Exception {
+        return AutomatonParser.read(Path.of(Fixtures.AUTOMATA_DIRECTORY + automaton), new Interner<>());
+    }
+
+    @Benchmark
+    public BuchiAutomaton parseAndBuild() throws Exception {
+        ParsedAutomaton parsed = parse();
+        return parsed.build(parsed.alphabet());
+    }
+
+}
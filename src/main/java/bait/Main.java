@@ -2,6 +2,10 @@ package bait;
 
 import java.io.IOException;
 
+import bait.algorithm.BatchRunner;
+import bait.algorithm.Converter;
+import bait.algorithm.OneToManyRunner;
+import bait.algorithm.QueryServer;
 import bait.algorithm.Runner;
 import bait.automata.AutomatonParser;
 import bait.utility.Args;
@@ -12,6 +16,22 @@ public class Main {
     public static void main(String[] args) {
         try {
             Args arguments = ArgsParser.parseArgs(args);
+            if (arguments.conversion()) {
+                new Converter().convert(arguments);
+                return;
+            }
+            if (arguments.server()) {
+                new QueryServer(arguments).serve();
+                return;
+            }
+            if (arguments.many()) {
+                new OneToManyRunner().run(arguments);
+                return;
+            }
+            if (arguments.batch()) {
+                new BatchRunner().run(arguments);
+                return;
+            }
             Runner algorithmRunner = new Runner();
             algorithmRunner.inclusionHolds(arguments);
         } catch (AutomatonParser.ParseError | IOException e) {
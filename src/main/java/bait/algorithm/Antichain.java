@@ -1,35 +1,75 @@
 package bait.algorithm;
 
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.NavigableMap;
 import java.util.Set;
+import java.util.TreeMap;
 
 import bait.comparator.PartialComparator;
+import bait.comparator.SummarizingComparator;
 
 /**
  * Antichain represents a set of elements for which holds: for each x in the
  * set, for each y in the set, x is not lesser or equal to y and y is not lesser
  * or equal to x. To compare two elements a partial comparator is used.
  *
+ * If the comparator is a {@link SummarizingComparator}, the elements are also
+ * indexed by weight, and each one is stored together with its signature: when
+ * looking for the elements that are lesser (greater) or equal than a given one,
+ * only the elements with lower (higher) weight whose signature is compatible
+ * are compared. The avoided comparisons are the elements that the index rules
+ * out: the ones outside the range of weights of a scan, and the ones in the
+ * range that the scan reaches and rejects by signature.
+ *
  * @param <T> type of the elements
  */
 public final class Antichain<T> {
 
     private final Set<T> elements;
+    private final Set<T> unmodifiableElements;
     private final PartialComparator<T> comparator;
+    // null if the comparator does not summarize the elements, in which case the
+    // index by weight is not used
+    private final SummarizingComparator<T> summarizingComparator;
+    private final NavigableMap<Integer, Bucket<T>> elementsByWeight;
+    private long avoidedComparisons = 0;
 
     public Antichain(PartialComparator<T> comparator) {
         elements = new HashSet<>();
+        unmodifiableElements = Collections.unmodifiableSet(elements);
         this.comparator = comparator;
+        if (comparator instanceof SummarizingComparator) {
+            summarizingComparator = (SummarizingComparator<T>) comparator;
+            elementsByWeight = new TreeMap<>();
+        } else {
+            summarizingComparator = null;
+            elementsByWeight = null;
+        }
     }
 
+    /**
+     * @return an unmodifiable view of the elements of the antichain
+     */
     public Set<T> elements() {
-        return elements;
+        return unmodifiableElements;
     }
 
     public int size() {
         return elements.size();
     }
 
+    /**
+     * @return the number of elements that were not compared, thanks to their
+     *         weight or signature, when updating or querying the antichain
+     */
+    public long avoidedComparisons() {
+        return avoidedComparisons;
+    }
+
     /**
      * Greatest lower bound. Returns true iff the antichain gets modified.
      *
@@ -37,9 +77,14 @@ public final class Antichain<T> {
      * @return true iff the antichain was modified.
      */
     public boolean glbWith(T newElement) {
-        boolean removedElements = removeStrictlyGreaterElements(newElement);
-        boolean addedElement = addIfDoesNotExistsSmallerElement(newElement);
-        return removedElements || addedElement;
+        // if no element is lesser or equal than the new one, the new one is added; if
+        // some element is, then no element is greater than the new one, otherwise
+        // the set would not be an antichain, so nothing has to be removed
+        if (containsLesserOrEqual(newElement))
+            return false;
+        removeGreaterElements(newElement);
+        add(newElement);
+        return true;
     }
 
     /**
@@ -49,58 +94,186 @@ public final class Antichain<T> {
      * @return true iff the antichain was modified.
      */
     public boolean lubWith(T newElement) {
-        boolean removedElements = removeStrictlySmallerElements(newElement);
-        boolean addedElement = addIfDoesNotExistsGreaterElement(newElement);
-        return removedElements || addedElement;
+        if (containsGreaterOrEqual(newElement))
+            return false;
+        removeSmallerElements(newElement);
+        add(newElement);
+        return true;
+    }
+
+    /**
+     * @param element the element to compare
+     * @return true iff the antichain contains an element that is lesser or equal
+     *         than the given one
+     */
+    public boolean containsLesserOrEqual(T element) {
+        if (summarizingComparator == null)
+            return elements.stream().anyMatch(elementInSet -> comparator.lesserOrEqual(elementInSet, element));
+        long signature = summarizingComparator.signature(element);
+        Collection<Bucket<T>> range = elementsByWeight.headMap(summarizingComparator.weight(element), true).values();
+        countElementsOutside(range);
+        for (Bucket<T> bucket : range)
+            for (int i = 0; i < bucket.size; i++) {
+                if ((bucket.signatures[i] & ~signature) != 0) {
+                    avoidedComparisons++;
+                    continue;
+                }
+                if (comparator.lesserOrEqual(bucket.element(i), element))
+                    return true;
+            }
+        return false;
+    }
+
+    /**
+     * @param element the element to compare
+     * @return true iff the antichain contains an element that is greater or equal
+     *         than the given one
+     */
+    public boolean containsGreaterOrEqual(T element) {
+        if (summarizingComparator == null)
+            return elements.stream().anyMatch(elementInSet -> comparator.lesserOrEqual(element, elementInSet));
+        long signature = summarizingComparator.signature(element);
+        Collection<Bucket<T>> range = elementsByWeight.tailMap(summarizingComparator.weight(element), true).values();
+        countElementsOutside(range);
+        for (Bucket<T> bucket : range)
+            for (int i = 0; i < bucket.size; i++) {
+                if ((signature & ~bucket.signatures[i]) != 0) {
+                    avoidedComparisons++;
+                    continue;
+                }
+                if (comparator.lesserOrEqual(element, bucket.element(i)))
+                    return true;
+            }
+        return false;
+    }
+
+    /**
+     * Replaces the elements of this antichain with the elements of another
+     * antichain, without comparing them.
+     *
+     * @param other antichain with the same comparator as this one
+     */
+    public void copyFrom(Antichain<T> other) {
+        elements.clear();
+        if (summarizingComparator != null)
+            elementsByWeight.clear();
+        for (T element : other.elements)
+            add(element);
     }
 
     /**
+     * Removes the elements that are greater or equal than the new element, which
+     * is assumed not to be in the antichain.
+     *
      * @param newElement the element to be compared
-     * @return true iff some elements were removed
      */
-    private boolean removeStrictlyGreaterElements(T newElement) {
-        int sizeBefore = elements.size();
-        elements.removeIf(
-                setOfStates -> !setOfStates.equals(newElement) && comparator.lesserOrEqual(newElement, setOfStates));
-        return elements.size() < sizeBefore;
+    private void removeGreaterElements(T newElement) {
+        if (summarizingComparator == null) {
+            elements.removeIf(elementInSet -> comparator.lesserOrEqual(newElement, elementInSet));
+            return;
+        }
+        long signature = summarizingComparator.signature(newElement);
+        Collection<Bucket<T>> range = elementsByWeight.tailMap(summarizingComparator.weight(newElement), true).values();
+        countElementsOutside(range);
+        Iterator<Bucket<T>> buckets = range.iterator();
+        while (buckets.hasNext()) {
+            Bucket<T> bucket = buckets.next();
+            for (int i = 0; i < bucket.size;) {
+                if (!((signature & ~bucket.signatures[i]) == 0))
+                    avoidedComparisons++;
+                else if (comparator.lesserOrEqual(newElement, bucket.element(i))) {
+                    elements.remove(bucket.element(i));
+                    bucket.remove(i);
+                    continue;
+                }
+                i++;
+            }
+            if (bucket.size == 0)
+                buckets.remove();
+        }
     }
 
     /**
+     * Removes the elements that are lesser or equal than the new element, which is
+     * assumed not to be in the antichain.
+     *
      * @param newElement the element to be compared
-     * @return true iff some elements were removed
      */
-    private boolean removeStrictlySmallerElements(T newElement) {
-        int sizeBefore = elements.size();
-        elements.removeIf(
-                setOfStates -> !setOfStates.equals(newElement) && comparator.lesserOrEqual(setOfStates, newElement));
-        return elements.size() < sizeBefore;
+    private void removeSmallerElements(T newElement) {
+        if (summarizingComparator == null) {
+            elements.removeIf(elementInSet -> comparator.lesserOrEqual(elementInSet, newElement));
+            return;
+        }
+        long signature = summarizingComparator.signature(newElement);
+        Collection<Bucket<T>> range = elementsByWeight.headMap(summarizingComparator.weight(newElement), true).values();
+        countElementsOutside(range);
+        Iterator<Bucket<T>> buckets = range.iterator();
+        while (buckets.hasNext()) {
+            Bucket<T> bucket = buckets.next();
+            for (int i = 0; i < bucket.size;) {
+                if (!((bucket.signatures[i] & ~signature) == 0))
+                    avoidedComparisons++;
+                else if (comparator.lesserOrEqual(bucket.element(i), newElement)) {
+                    elements.remove(bucket.element(i));
+                    bucket.remove(i);
+                    continue;
+                }
+                i++;
+            }
+            if (bucket.size == 0)
+                buckets.remove();
+        }
     }
 
     /**
-     * @param newElement the element to add
-     * @return true iff the new element is added
+     * Counts as avoided the elements outside the range of weights that a scan is
+     * going to visit.
      */
-    private boolean addIfDoesNotExistsSmallerElement(T newElement) {
-        boolean existsSmallerElement = elements.stream()
-                .anyMatch(setOfStates -> comparator.lesserOrEqual(setOfStates, newElement));
-        if (!existsSmallerElement) {
-            elements.add(newElement);
-            return true;
-        } else
-            return false;
+    private void countElementsOutside(Collection<Bucket<T>> range) {
+        int elementsInRange = 0;
+        for (Bucket<T> bucket : range)
+            elementsInRange += bucket.size;
+        avoidedComparisons += elements.size() - elementsInRange;
+    }
+
+    private void add(T newElement) {
+        elements.add(newElement);
+        if (summarizingComparator != null)
+            elementsByWeight.computeIfAbsent(summarizingComparator.weight(newElement), weight -> new Bucket<>())
+                    .add(newElement, summarizingComparator.signature(newElement));
     }
 
     /**
-     * @param newElement the element to add
-     * @return true iff the new element is added
+     * The elements of the antichain with the same weight, each stored next to its
+     * signature. The order of the elements is not relevant, so an element is
+     * removed by moving the last one in its place.
      */
-    private boolean addIfDoesNotExistsGreaterElement(T newElement) {
-        boolean thereIsSomethingGreater = elements.stream()
-                .anyMatch(setOfStates -> comparator.lesserOrEqual(newElement, setOfStates));
-        if (!thereIsSomethingGreater) {
-            elements.add(newElement);
-            return true;
-        } else
-            return false;
+    private static final class Bucket<T> {
+
+        private Object[] elements = new Object[4];
+        private long[] signatures = new long[4];
+        private int size = 0;
+
+        @SuppressWarnings("unchecked")
+        T element(int i) {
+            return (T) elements[i];
+        }
+
+        void add(T element, long signature) {
+            if (size == elements.length) {
+                elements = Arrays.copyOf(elements, 2 * size);
+                signatures = Arrays.copyOf(signatures, 2 * size);
+            }
+            elements[size] = element;
+            signatures[size] = signature;
+            size++;
+        }
+
+        void remove(int i) {
+            size--;
+            elements[i] = elements[size];
+            signatures[i] = signatures[size];
+            elements[size] = null;
+        }
     }
 }
@@ -0,0 +1,170 @@
+package bait.algorithm;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import bait.automata.Alphabet;
+import bait.automata.AutomatonSource;
+import bait.automata.BuchiAutomaton;
+import bait.automata.AutomatonParser.ParseError;
+import bait.collections.Interner;
+import bait.collections.LruCache;
+import bait.collections.Pair;
+import bait.preprocessing.Preprocessor;
+
+/**
+ * Cache of the automata read by the batch runner and by the server, for the
+ * workloads in which the same files appear in many queries. It has three
+ * levels, each one bounded to the same number of entries and evicting the
+ * least recently used one:
+ * <ul>
+ * <li>the sources, keyed by the SHA-256 hash of the content of their file, so
+ * that a file is parsed again only if its content changed, whatever its
+ * modification time says;</li>
+ * <li>the automata built from the sources, keyed by hash and alphabet;</li>
+ * <li>the automata reduced by a preprocessor, keyed by the built automaton and
+ * the names of the reductions.</li>
+ * </ul>
+ * Each entry is computed once: the threads that need an entry that another
+ * thread is computing wait for it. The cached automata are shared by the
+ * queries, which only read them, and they keep the data that they derive on
+ * first use, such as their contexts and strongly connected components.
+ */
+public final class AutomatonCache {
+
+    /**
+     * Computes the value of an entry.
+     */
+    @FunctionalInterface
+    private interface Computation<V, E extends Exception> {
+        V compute() throws E;
+    }
+
+    private final LruCache<String, CompletableFuture<AutomatonSource>> sources;
+    private final LruCache<Pair<String, Alphabet>, CompletableFuture<BuchiAutomaton>> built;
+    // the built automata are compared by identity, which is enough since equal
+    // ones are the same object as long as they are in the cache
+    private final LruCache<Pair<BuchiAutomaton, List<String>>, CompletableFuture<BuchiAutomaton>> reduced;
+
+    /**
+     * @param capacity the maximum number of entries of each level
+     */
+    public AutomatonCache(int capacity) {
+        sources = new LruCache<>(capacity);
+        built = new LruCache<>(capacity);
+        reduced = new LruCache<>(capacity);
+    }
+
+    /**
+     * Same as {@link Runner#readPair}, but the files that were already read are
+     * only hashed, and the automata that were already built over the same
+     * alphabet are not built again.
+     *
+     * @return the first and the second automaton
+     */
+    public BuchiAutomaton[] readPair(Path firstPath, Path secondPath) throws IOException, ParseError {
+        Pair<String, AutomatonSource> first = source(firstPath);
+        Pair<String, AutomatonSource> second = source(secondPath);
+        Alphabet alphabet = Alphabet.merge(first.snd().alphabet(), second.snd().alphabet());
+        return new BuchiAutomaton[] { build(first, alphabet), build(second, alphabet) };
+    }
+
+    /**
+     * @return the automaton reduced by the preprocessor, which reduces it only if
+     *         no preprocessor with the same reductions already did. The report of
+     *         the preprocessor does not include the reductions found in the cache
+     */
+    public BuchiAutomaton preprocess(Preprocessor preprocessor, BuchiAutomaton automaton, String name) {
+        return computeOnce(reduced, Pair.of(automaton, preprocessor.reductionsNames()),
+                () -> preprocessor.preprocess(automaton, name));
+    }
+
+    private Pair<String, AutomatonSource> source(Path path) throws IOException, ParseError {
+        String key = key(path);
+        return Pair.of(key, computeOnce(sources, key, () -> Runner.readAutomaton(path, new Interner<>())));
+    }
+
+    private BuchiAutomaton build(Pair<String, AutomatonSource> source, Alphabet alphabet) {
+        return computeOnce(built, Pair.of(source.fst(), alphabet), () -> source.snd().build(alphabet));
+    }
+
+    /**
+     * @return the SHA-256 hash of the content of the file, which is streamed
+     *         rather than read in memory as a whole
+     */
+    private static String key(Path path) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            // every Java platform is required to support SHA-256
+            throw new IllegalStateException(e);
+        }
+        try (InputStream content = Files.newInputStream(path)) {
+            byte[] buffer = new byte[1 << 16];
+            for (int read = content.read(buffer); read >= 0; read = content.read(buffer))
+                digest.update(buffer, 0, read);
+        }
+        StringBuilder hex = new StringBuilder();
+        for (byte b : digest.digest())
+            hex.append(String.format("%02x", b));
+        return hex.toString();
+    }
+
+    /**
+     * Returns the value of the key, computing it if it is not in the cache. The
+     * first thread that misses the key computes the value, and the threads that
+     * ask for the key meanwhile wait for it. A computation that fails is removed
+     * from the cache, so that the next request tries again, and its exception is
+     * thrown to the waiting threads too.
+     */
+    @SuppressWarnings("unchecked")
+    private static <K, V, E extends Exception> V computeOnce(LruCache<K, CompletableFuture<V>> cache, K key,
+            Computation<V, E> computation) throws E {
+        CompletableFuture<V> created = new CompletableFuture<>();
+        CompletableFuture<V> present = cache.putIfAbsent(key, created);
+        if (present == null) {
+            try {
+                V value = computation.compute();
+                created.complete(value);
+                return value;
+            } catch (Throwable e) {
+                cache.remove(key, created);
+                created.completeExceptionally(e);
+                throw e;
+            }
+        }
+        try {
+            return present.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof Error)
+                throw (Error) e.getCause();
+            if (e.getCause() instanceof RuntimeException)
+                throw (RuntimeException) e.getCause();
+            throw (E) e.getCause();
+        }
+    }
+
+    /**
+     * @return the number of built and reduced automata found in the cache
+     */
+    public long hits() {
+        return built.hits() + reduced.hits();
+    }
+
+    /**
+     * @return the number of automata that were built or reduced because they were
+     *         not in the cache
+     */
+    public long misses() {
+        return built.misses() + reduced.misses();
+    }
+
+}
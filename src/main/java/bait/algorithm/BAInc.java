@@ -1,14 +1,28 @@
 package bait.algorithm;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.PriorityQueue;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 
 import bait.automata.BuchiAutomaton;
 import bait.automata.State;
+import bait.automata.StronglyConnectedComponents;
 import bait.automata.Symbol;
+import bait.collections.Interner;
+import bait.collections.LruCache;
+import bait.collections.RelationPair;
+import bait.collections.StateRelation;
+import bait.collections.StateSet;
 import bait.comparator.PartialComparator;
-import bait.comparator.XInclusionComparator;
-import bait.comparator.YInclusionComparator;
 import bait.utility.Algorithms;
 import bait.utility.Args;
 import bait.collections.Pair;
@@ -23,7 +37,38 @@ public final class BAInc {
     private int totalXAntichainsSize = 0;
     private int totalYAntichainsSize = 0;
     private int numberOfComputedYs = 0;
-    private int iterationsLastKleene = 0;
+    private long avoidedComparisons = 0;
+    // final states of a whose Y vector is not computed, because they are not on a
+    // cycle or they are not reachable by a word that b can read
+    private int finalStatesNotOnACycle = 0;
+    private int finalStatesWithEmptyX = 0;
+    // entries of the Y vectors that are outside of the cone of influence of their
+    // final state, and so are never created
+    private long prunedYEntries = 0;
+    // images of the elements of the Y vectors that the shared engine did not
+    // compute again for another final state
+    private long sharedYImages = 0;
+    // set as soon as one final state yields a counterexample, so that the Y vectors
+    // that are being computed in parallel can be abandoned
+    private volatile boolean counterexampleFound = false;
+    // the lasso starts of the elements of the Ys, which depend only on b. They are
+    // cached for one run, since the elements of the runs against the same b differ
+    private Map<RelationPair, StateSet> lassoStartsCache;
+    // caches of the post images of the elements, shared by all the entries of the
+    // vectors of one run. The Y cache is shared also by the Y vectors of different
+    // final states, and both by the runs against the same prepared b
+    private LruCache<Pair<StateSet, Symbol>, StateSet> xPostCache;
+    private LruCache<Pair<RelationPair, Symbol>, RelationPair> yPostCache;
+    // the elements computed during one run are hash-consed, so that the equal
+    // elements found in different entries and vectors are the same object
+    private Interner<StateSet> xInterner;
+    private Interner<RelationPair> yInterner;
+    // the quasiorders of the elements, shared by all the vectors of one run
+    private PartialComparator<StateSet> xComparator;
+    private PartialComparator<RelationPair> yComparator;
+    // the strongly connected components of a, which a computes only once. They give the
+    // cones of influence of the final states and the schedule of the scc engine
+    private StronglyConnectedComponents componentsOfA;
 
     /**
      * @return the time to run the algorithm in milliseconds
@@ -58,6 +103,42 @@ public final class BAInc {
             return 0.0;
     }
 
+    public long getAvoidedComparisons() {
+        return avoidedComparisons;
+    }
+
+    public int getFinalStatesNotOnACycle() {
+        return finalStatesNotOnACycle;
+    }
+
+    public int getFinalStatesWithEmptyX() {
+        return finalStatesWithEmptyX;
+    }
+
+    public long getPrunedYEntries() {
+        return prunedYEntries;
+    }
+
+    public long getSharedYImages() {
+        return sharedYImages;
+    }
+
+    public long getPostCacheHits() {
+        return cacheHits(xPostCache) + cacheHits(yPostCache);
+    }
+
+    public long getPostCacheMisses() {
+        return cacheMisses(xPostCache) + cacheMisses(yPostCache);
+    }
+
+    private static long cacheHits(LruCache<?, ?> cache) {
+        return cache == null ? 0 : cache.hits();
+    }
+
+    private static long cacheMisses(LruCache<?, ?> cache) {
+        return cache == null ? 0 : cache.misses();
+    }
+
     public BAInc(Args args) {
         timer = new Timer();
         this.args = args;
@@ -70,19 +151,165 @@ public final class BAInc {
      */
     public boolean run(BuchiAutomaton a, BuchiAutomaton b) {
         timer.start();
+        PreparedAutomaton preparedB = new PreparedAutomaton(b, args);
+        timer.stop();
+        return run(a, preparedB);
+    }
+
+    /**
+     * Same as {@link #run(BuchiAutomaton, BuchiAutomaton)}, but what depends only
+     * on b is taken from preparedB, which can be shared with other runs.
+     *
+     * @param a         first automaton, built over the same alphabet as b
+     * @param preparedB second automaton, prepared with the same arguments
+     * @return true iff the language of a is a subset of the language of b
+     */
+    boolean run(BuchiAutomaton a, PreparedAutomaton preparedB) {
+        timer.start();
+        BuchiAutomaton b = preparedB.automaton();
+        counterexampleFound = false;
+        xInterner = new Interner<>();
+        yInterner = new Interner<>();
+        xComparator = preparedB.newXComparator();
+        yComparator = preparedB.newYComparator();
+        xPostCache = preparedB.xPostCache();
+        yPostCache = preparedB.yPostCache();
+        lassoStartsCache = new ConcurrentHashMap<>();
+        componentsOfA = a.stronglyConnectedComponents();
+        boolean included;
+        if (args.threads() > 1) {
+            // the whole computation runs in the pool, so that the parallel streams used
+            // by the vectors run in it as well
+            ForkJoinPool pool = new ForkJoinPool(args.threads());
+            try {
+                included = pool.submit(() -> inclusionHolds(a, b)).join();
+            } finally {
+                pool.shutdownNow();
+            }
+        } else
+            included = inclusionHolds(a, b);
+        timer.stop();
+        return included;
+    }
+
+    private boolean inclusionHolds(BuchiAutomaton a, BuchiAutomaton b) {
         XVector x = computeX(a, b);
         updateXStatistics(x);
-        for (State finalState : a.finalStates()) {
-            YVector y = computeY(a, b, finalState);
-            updateYStatistics(y);
-            for (Set<State> xElement : x.get(finalState))
-                for (Pair<Map<State, Set<State>>, Map<State, Set<State>>> yElement : y.get(finalState))
-                    if (!C(xElement, yElement)) {
-                        timer.stop();
-                        return false;
-                    }
+        if (args.engine() == Args.Engine.SHARED)
+            return inclusionHoldsForAllFinalStatesShared(a, b, x);
+        if (args.threads() > 1)
+            return inclusionHoldsForAllFinalStatesInParallel(a, b, x);
+        else
+            return inclusionHoldsForAllFinalStates(a, b, x);
+    }
+
+    private boolean inclusionHoldsForAllFinalStates(BuchiAutomaton a, BuchiAutomaton b, XVector x) {
+        for (State finalState : a.finalStates())
+            if (!inclusionHoldsForFinalState(a, b, x, finalState))
+                return false;
+        return true;
+    }
+
+    /**
+     * Computes the Y vectors of the final states as tasks of the current fork-join
+     * pool. As soon as one final state yields a counterexample, the tasks that
+     * didn't start yet are cancelled and the running ones stop at their next
+     * iteration.
+     */
+    private boolean inclusionHoldsForAllFinalStatesInParallel(BuchiAutomaton a, BuchiAutomaton b, XVector x) {
+        List<ForkJoinTask<Boolean>> tasks = new ArrayList<>();
+        for (State finalState : a.finalStates())
+            tasks.add(ForkJoinTask.adapt(() -> inclusionHoldsForFinalState(a, b, x, finalState)).fork());
+        boolean included = true;
+        for (ForkJoinTask<Boolean> task : tasks) {
+            if (!included)
+                task.cancel(true);
+            else if (!task.join())
+                included = false;
+        }
+        return included;
+    }
+
+    /**
+     * @param x          the X vector
+     * @param finalState a final state of a
+     * @return false iff the Y vector of the final state yields a counterexample to
+     *         the inclusion
+     */
+    private boolean inclusionHoldsForFinalState(BuchiAutomaton a, BuchiAutomaton b, XVector x, State finalState) {
+        if (counterexampleFound)
+            return false;
+        if (!needsY(x, finalState))
+            return true;
+        YVector y = computeY(a, b, finalState, coneOfInfluence(finalState));
+        if (counterexampleFound)
+            return false;
+        updateYStatistics(y);
+        return inclusionHoldsForEntries(x.get(finalState), y.get(finalState));
+    }
+
+    /**
+     * Computes the Y vectors of all the final states that need one with a single
+     * shared fixpoint, and then checks them one by one.
+     */
+    private boolean inclusionHoldsForAllFinalStatesShared(BuchiAutomaton a, BuchiAutomaton b, XVector x) {
+        List<State> sources = new ArrayList<>();
+        List<StateSet> cones = new ArrayList<>();
+        for (State finalState : a.finalStates())
+            if (needsY(x, finalState)) {
+                sources.add(finalState);
+                cones.add(coneOfInfluence(finalState));
+            }
+        SharedYVector y = computeSharedY(a, b, sources, cones);
+        updateYStatistics(y);
+        for (int tag = 0; tag < sources.size(); tag++)
+            if (!inclusionHoldsForEntries(x.get(sources.get(tag)), y.entryOfSource(tag)))
+                return false;
+        return true;
+    }
+
+    /**
+     * A final state that is not on a cycle of a is the base of no lasso, and one
+     * whose entry of X is empty is reached by no word, so for both the check holds
+     * without computing the Y vector.
+     *
+     * @return true iff the Y vector of the final state must be computed
+     */
+    private boolean needsY(XVector x, State finalState) {
+        if (!componentsOfA.isCyclic(componentsOfA.component(finalState.getIntIndex()))) {
+            countSkippedFinalState(true);
+            return false;
+        }
+        if (x.get(finalState).isEmpty()) {
+            countSkippedFinalState(false);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * @return the states whose entries of the Y vector of the final state can
+     *         contribute to the entry of the final state: the ones of its strongly
+     *         connected component
+     */
+    private StateSet coneOfInfluence(State finalState) {
+        return componentsOfA.members(componentsOfA.component(finalState.getIntIndex()));
+    }
+
+    /**
+     * @param xEntry the entry of a final state in the X vector
+     * @param yEntry the entry of the same final state in its Y vector
+     * @return false iff the entries yield a counterexample to the inclusion
+     */
+    private boolean inclusionHoldsForEntries(Set<StateSet> xEntry, Set<RelationPair> yEntry) {
+        for (RelationPair yElement : yEntry) {
+            StateSet lassoStarts = lassoStarts(yElement);
+            for (StateSet xElement : xEntry)
+                if (!C(xElement, lassoStarts)) {
+                    counterexampleFound = true;
+                    return false;
+                }
         }
-        timer.stop();
         return true;
     }
 
@@ -93,50 +320,127 @@ public final class BAInc {
      *         algorithm
      */
     private XVector computeX(BuchiAutomaton a, BuchiAutomaton b) {
-        PartialComparator<Set<State>> comparator = new XInclusionComparator();
+        PartialComparator<StateSet> comparator = xComparator;
         XVector vectorBefore = XVector.initialX(a, b, comparator);
-        // Initialize the vectorAfter with the same value
-        XVector vectorAfter = XVector.initialX(a, b, comparator);
+        vectorBefore.setPostCache(xPostCache);
+        vectorBefore.setInterner(xInterner);
         if (args.minimalDebug())
             System.out.println("\nComputing X\n");
-        return (XVector) kleene(vectorBefore, vectorAfter, comparator);
+        if (args.engine() == Args.Engine.WORKLIST || args.engine() == Args.Engine.SHARED)
+            return (XVector) worklist(vectorBefore);
+        if (args.engine() == Args.Engine.SCC)
+            return (XVector) sccOrdered(vectorBefore);
+        // Initialize the vectorAfter with the same value
+        XVector vectorAfter = XVector.initialX(a, b, comparator);
+        vectorAfter.setPostCache(xPostCache);
+        vectorAfter.setInterner(xInterner);
+        setParallelIterations(vectorBefore, vectorAfter);
+        return (XVector) kleene(vectorBefore, vectorAfter);
     }
 
     /**
-     * @param a the first automaton
-     * @param b the second automaton
+     * @param a    the first automaton
+     * @param b    the second automaton
+     * @param cone the cone of influence of the final state
      * @return the Y vector described in the paper applying the least fixpoint
-     *         algorithm
+     *         algorithm, restricted to the cone
      */
-    private YVector computeY(BuchiAutomaton a, BuchiAutomaton b, State finalState) {
-        PartialComparator<Pair<Map<State, Set<State>>, Map<State, Set<State>>>> comparator = new YInclusionComparator();
-        Map<Symbol, Map<State, Set<State>>> contextB = b.context();
-        Map<Symbol, Map<State, Set<State>>> finalContextB = b.finalContext();
-        YVector vectorBefore = YVector.initialY(a, b, finalState, comparator, contextB, finalContextB);
-        // Initialize the vectorAfter with the same value
-        YVector vectorAfter = YVector.initialY(a, b, finalState, comparator, contextB, finalContextB);
+    private YVector computeY(BuchiAutomaton a, BuchiAutomaton b, State finalState, StateSet cone) {
+        PartialComparator<RelationPair> comparator = yComparator;
+        Map<Symbol, StateRelation> contextB = b.context();
+        Map<Symbol, StateRelation> finalContextB = b.finalContext();
+        YVector vectorBefore = YVector.initialY(a, b, finalState, comparator, contextB, finalContextB, cone);
+        vectorBefore.setPostCache(yPostCache);
+        vectorBefore.setInterner(yInterner);
         if (args.minimalDebug())
             System.out.println("Computing Y relative to final state " + finalState + "\n");
-        return (YVector) kleene(vectorBefore, vectorAfter, comparator);
+        if (args.engine() == Args.Engine.WORKLIST)
+            return (YVector) worklist(vectorBefore);
+        if (args.engine() == Args.Engine.SCC)
+            return (YVector) sccOrdered(vectorBefore);
+        // Initialize the vectorAfter with the same value
+        YVector vectorAfter = YVector.initialY(a, b, finalState, comparator, contextB, finalContextB, cone);
+        vectorAfter.setPostCache(yPostCache);
+        vectorAfter.setInterner(yInterner);
+        setParallelIterations(vectorBefore, vectorAfter);
+        return (YVector) kleene(vectorBefore, vectorAfter);
     }
 
     /**
-     * @param x entry of the X vector
-     * @param y entry of the Y vector
+     * @param sources the final states whose Y vectors are computed
+     * @param cones   the cones of influence of the final states
+     * @return the Y vectors of the final states, computed by one worklist
+     *         fixpoint shared by all of them
+     */
+    private SharedYVector computeSharedY(BuchiAutomaton a, BuchiAutomaton b, List<State> sources,
+            List<StateSet> cones) {
+        SharedYVector vector = SharedYVector.initialY(a, sources, cones, yComparator, b.context(),
+                b.finalContext());
+        vector.setPostCache(yPostCache);
+        vector.setInterner(yInterner);
+        if (args.minimalDebug())
+            System.out.println("Computing the Ys of " + sources.size() + " final states together\n");
+        Deque<State> worklist = new ArrayDeque<>(vector.initiallyChangedEntries());
+        Set<State> statesInWorklist = new HashSet<>(worklist);
+        while (!worklist.isEmpty()) {
+            State state = worklist.poll();
+            statesInWorklist.remove(state);
+            for (State changedState : vector.propagateInnerFrontier(state))
+                if (statesInWorklist.add(changedState))
+                    worklist.add(changedState);
+        }
+        addAvoidedComparisons(vector.avoidedComparisons());
+        return vector;
+    }
+
+    private <T> void setParallelIterations(BAIncVector<T> vectorBefore, BAIncVector<T> vectorAfter) {
+        boolean parallel = args.threads() > 1 && args.parallelIterations();
+        vectorBefore.setParallel(parallel);
+        vectorAfter.setParallel(parallel);
+    }
+
+    /**
+     * The C function described in the paper holds for x and y iff there is p in x
+     * and q such that (p,q) is in y₁* and (q,q) is in y₁* ∘ y₂ ∘ y₁*. The set of
+     * such p depends only on y, so it is precomputed by lassoStarts.
+     *
+     * @param x           entry of the X vector
+     * @param lassoStarts the result of lassoStarts on the entry of the Y vector
      * @return the result of the C function described in the paper
      */
-    private boolean C(Set<State> x, Pair<Map<State, Set<State>>, Map<State, Set<State>>> y) {
-        Map<State, Set<State>> y1 = y.fst();
-        Map<State, Set<State>> y2 = y.snd();
-        Map<State, Set<State>> transitiveClosureOfY1 = Algorithms.transitiveClosure(y1);
-        Map<State, Set<State>> composition = Algorithms.compose(Algorithms.compose(transitiveClosureOfY1, y2),
-                transitiveClosureOfY1);
-        for (State p : x)
-            if (transitiveClosureOfY1.containsKey(p))
-                for (State q : transitiveClosureOfY1.get(p))
-                    if (composition.containsKey(q) && composition.get(q).contains(q))
-                        return true; // there's the pair (q,q) in y₁* ∘ y₂ ∘ y₁*
-        return false;
+    private boolean C(StateSet x, StateSet lassoStarts) {
+        return x.intersects(lassoStarts);
+    }
+
+    /**
+     * @param y entry of the Y vector
+     * @return the set of states p such that there's q with (p,q) in y₁* and (q,q)
+     *         in y₁* ∘ y₂ ∘ y₁*. The result is cached, because the same element can
+     *         be in the Y vectors of many final states.
+     */
+    private StateSet lassoStarts(RelationPair y) {
+        return lassoStartsCache.computeIfAbsent(y, BAInc::computeLassoStarts);
+    }
+
+    private static StateSet computeLassoStarts(RelationPair y) {
+        StateRelation transitiveClosureOfY1 = Algorithms.transitiveClosure(y.fst());
+        StateRelation composition = Algorithms.compose(transitiveClosureOfY1, y.snd());
+        // states q such that (q,q) is in y₁* ∘ y₂ ∘ y₁*
+        StateSet.Builder lassoStates = new StateSet.Builder();
+        for (int q = 0; q < composition.numberOfRows(); q++) {
+            StateSet reachableFromQ = composition.row(q);
+            for (int r = reachableFromQ.next(0); r >= 0; r = reachableFromQ.next(r + 1))
+                if (transitiveClosureOfY1.contains(r, q)) {
+                    lassoStates.add(q);
+                    break;
+                }
+        }
+        StateSet lassoStatesSet = lassoStates.build();
+        StateSet.Builder lassoStarts = new StateSet.Builder();
+        for (int p = 0; p < transitiveClosureOfY1.numberOfRows(); p++)
+            if (transitiveClosureOfY1.row(p).intersects(lassoStatesSet))
+                lassoStarts.add(p);
+        return lassoStarts.build();
     }
 
     /**
@@ -146,39 +450,147 @@ public final class BAInc {
      * @return the fixpoint of the function p1 or p2 described in the paper,
      *         depending on the concrete type of the BAIncVector
      */
-    private <T> BAIncVector<T> kleene(BAIncVector<T> vectorBefore, BAIncVector<T> vectorAfter,
-            PartialComparator<T> comparator) {
+    private <T> BAIncVector<T> kleene(BAIncVector<T> vectorBefore, BAIncVector<T> vectorAfter) {
         Set<State> changedEntries = vectorBefore.initiallyChangedEntries();
         // the outer frontier is the set of states which are successors of states that
         // changed during the last iteration. It is used to update the entries of the
         // vector more efficiently
         Set<State> outerFrontier;
         boolean reachedFixpoint = false;
-        iterationsLastKleene = 0;
+        int iterations = 0;
         printInitialMessage(vectorBefore);
-        while (!reachedFixpoint) {
+        while (!reachedFixpoint && !counterexampleFound) {
             outerFrontier = State.post(changedEntries);
-            printFirstMessage(vectorBefore, outerFrontier);
+            printFirstMessage(vectorBefore, outerFrontier, iterations);
             changedEntries = vectorAfter.iterate(vectorBefore, outerFrontier);
             vectorBefore.updateInnerFrontiers(vectorAfter, changedEntries);
-            reachedFixpoint = vectorAfter.entriesAreComparable(vectorBefore, changedEntries, comparator);
+            reachedFixpoint = vectorAfter.entriesAreComparable(vectorBefore, changedEntries);
             printSecondMessage(vectorBefore, vectorAfter, changedEntries);
             vectorBefore.copyEntries(vectorAfter, changedEntries);
-            iterationsLastKleene++;
+            iterations++;
         }
+        vectorBefore.setIterations(iterations);
+        addAvoidedComparisons(vectorBefore.avoidedComparisons() + vectorAfter.avoidedComparisons());
         printFinalMessage(vectorBefore);
         return vectorBefore;
     }
 
+    /**
+     * Chaotic iteration over a single vector. The inner frontier of each entry
+     * holds the elements that were added to the entry and that were not yet
+     * propagated to the entries of its successors, and the worklist holds the
+     * states whose entries have a non-empty inner frontier. Each element is
+     * propagated exactly once, unless it is subsumed before its propagation, and
+     * no comparison or copy between vectors is needed.
+     *
+     * @param vector the initial vector, whose inner frontiers contain the initial
+     *               elements
+     * @return the fixpoint of the function p1 or p2 described in the paper,
+     *         depending on the concrete type of the BAIncVector. Its number of
+     *         iterations is the number of entries that have been propagated
+     */
+    private <T> BAIncVector<T> worklist(BAIncVector<T> vector) {
+        Deque<State> worklist = new ArrayDeque<>(vector.initiallyChangedEntries());
+        Set<State> statesInWorklist = new HashSet<>(worklist);
+        int iterations = 0;
+        printInitialMessage(vector);
+        while (!worklist.isEmpty() && !counterexampleFound) {
+            State state = worklist.poll();
+            statesInWorklist.remove(state);
+            for (State changedState : vector.propagateInnerFrontier(state))
+                if (statesInWorklist.add(changedState))
+                    worklist.add(changedState);
+            iterations++;
+        }
+        vector.setIterations(iterations);
+        addAvoidedComparisons(vector.avoidedComparisons());
+        printFinalMessage(vector);
+        return vector;
+    }
+
+    /**
+     * Chaotic iteration over a single vector, like the worklist engine, where the
+     * next entry to propagate is always taken from the first component of a, in
+     * topological order, that has entries to propagate. Hence the entries of a
+     * component are recomputed only after all the components that can reach it
+     * are stable, and each component is stabilized before moving to the next
+     * ones. Inside a component the entries are propagated in FIFO order.
+     *
+     * @param vector the initial vector, whose inner frontiers contain the initial
+     *               elements
+     * @return the fixpoint of the function p1 or p2 described in the paper,
+     *         depending on the concrete type of the BAIncVector. Its number of
+     *         iterations is the number of entries that have been propagated
+     */
+    private <T> BAIncVector<T> sccOrdered(BAIncVector<T> vector) {
+        StronglyConnectedComponents components = componentsOfA;
+        // the components are numbered in reverse topological order, so the one with
+        // the greatest number comes first
+        PriorityQueue<Integer> pendingComponents = new PriorityQueue<>(Comparator.reverseOrder());
+        List<Deque<State>> worklists = new ArrayList<>(components.numberOfComponents());
+        for (int c = 0; c < components.numberOfComponents(); c++)
+            worklists.add(null);
+        Set<State> statesInWorklists = new HashSet<>();
+        for (State state : vector.initiallyChangedEntries())
+            schedule(state, components, worklists, pendingComponents, statesInWorklists);
+        int iterations = 0;
+        printInitialMessage(vector);
+        while (!pendingComponents.isEmpty() && !counterexampleFound) {
+            int component = pendingComponents.peek();
+            Deque<State> worklist = worklists.get(component);
+            State state = worklist.poll();
+            if (worklist.isEmpty()) {
+                pendingComponents.poll();
+                worklists.set(component, null);
+            }
+            statesInWorklists.remove(state);
+            for (State changedState : vector.propagateInnerFrontier(state))
+                schedule(changedState, components, worklists, pendingComponents, statesInWorklists);
+            iterations++;
+        }
+        vector.setIterations(iterations);
+        addAvoidedComparisons(vector.avoidedComparisons());
+        printFinalMessage(vector);
+        return vector;
+    }
+
+    private static void schedule(State state, StronglyConnectedComponents components, List<Deque<State>> worklists,
+            PriorityQueue<Integer> pendingComponents, Set<State> statesInWorklists) {
+        if (!statesInWorklists.add(state))
+            return;
+        int component = components.component(state.getIntIndex());
+        if (worklists.get(component) == null) {
+            worklists.set(component, new ArrayDeque<>());
+            pendingComponents.add(component);
+        }
+        worklists.get(component).add(state);
+    }
+
     /**
      * Updates the counters for the statistics relative to the algorithm
      *
-     * @param ySize total number of elements in the entries of the Y vector
+     * @param y the Y vector
      */
-    private void updateYStatistics(YVector y) {
+    private synchronized void updateYStatistics(YVector y) {
         totalYAntichainsSize += y.totNumberOfElementsInEntries();
         numberOfComputedYs++;
-        yIterations += iterationsLastKleene;
+        yIterations += y.iterations();
+        prunedYEntries += y.vector.size() - y.numberOfEntries();
+    }
+
+    private synchronized void updateYStatistics(SharedYVector y) {
+        totalYAntichainsSize += y.totNumberOfElementsInEntries();
+        numberOfComputedYs += y.sources().size();
+        yIterations += y.iterations();
+        prunedYEntries += y.numberOfPrunedEntries();
+        sharedYImages += y.sharedImages();
+    }
+
+    private synchronized void countSkippedFinalState(boolean notOnACycle) {
+        if (notOnACycle)
+            finalStatesNotOnACycle++;
+        else
+            finalStatesWithEmptyX++;
     }
 
     /**
@@ -186,9 +598,13 @@ public final class BAInc {
      *
      * @param x the X vector
      */
-    private void updateXStatistics(XVector x) {
+    private synchronized void updateXStatistics(XVector x) {
         totalXAntichainsSize += x.totNumberOfElementsInEntries();
-        xIterations = iterationsLastKleene;
+        xIterations = x.iterations();
+    }
+
+    private synchronized void addAvoidedComparisons(long comparisons) {
+        avoidedComparisons += comparisons;
     }
 
     private <T> void printInitialMessage(BAIncVector<T> vectorBefore) {
@@ -199,9 +615,9 @@ public final class BAInc {
         }
     }
 
-    private <T> void printFirstMessage(BAIncVector<T> vectorBefore, Set<State> frontier) {
+    private <T> void printFirstMessage(BAIncVector<T> vectorBefore, Set<State> frontier, int iteration) {
         if (args.verboseDebug()) {
-            System.out.println("Iteration " + iterationsLastKleene);
+            System.out.println("Iteration " + iteration);
             if (args.veryVerboseDebug()) {
                 System.out.println("Frontier");
                 System.out.println(frontier);
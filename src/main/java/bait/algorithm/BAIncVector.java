@@ -1,19 +1,36 @@
 package bait.algorithm;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import bait.automata.BuchiAutomaton;
 import bait.automata.State;
-import bait.comparator.PartialComparator;
+import bait.automata.Symbol;
+import bait.collections.Interner;
+import bait.collections.LruCache;
+import bait.collections.Pair;
+import bait.collections.StateSet;
 
 public abstract class BAIncVector<T> {
 
     protected BuchiAutomaton a;
     protected BuchiAutomaton b;
+    // the entry of the state with index i is at position i, and it is null if the
+    // state is not in the domain of the vector
     protected ArrayList<BAIncVectorEntry<T>> vector;
+    // the states whose entries may be non-empty, or null if all of them may be
+    protected StateSet domain;
+    private int iterations;
+    // when true the entries are processed by parallel streams, which run in the
+    // fork-join pool of the caller
+    private boolean parallel;
 
     /**
      * Returns the set of states that are added to the initialization vector. For
@@ -41,7 +58,67 @@ public abstract class BAIncVector<T> {
      * @return corresponding value
      */
     public Set<T> get(State indexState) {
-        return vector.get(indexState.getIntIndex()).getAntichain();
+        BAIncVectorEntry<T> entry = vector.get(indexState.getIntIndex());
+        return entry == null ? Collections.emptySet() : entry.getAntichain();
+    }
+
+    /**
+     * @param state the index of a state
+     * @return true iff the state is in the domain of the vector, so that it has an
+     *         entry
+     */
+    public boolean inDomain(int state) {
+        return domain == null || domain.contains(state);
+    }
+
+    /**
+     * @return the number of entries of the vector
+     */
+    public int numberOfEntries() {
+        return domain == null ? vector.size() : domain.size();
+    }
+
+    /**
+     * @return the number of iterations that were needed to compute this vector
+     */
+    public int iterations() {
+        return iterations;
+    }
+
+    public void setIterations(int iterations) {
+        this.iterations = iterations;
+    }
+
+    /**
+     * @param parallel if true, the methods that process many entries of the vector
+     *                 at once process them in parallel
+     */
+    public void setParallel(boolean parallel) {
+        this.parallel = parallel;
+    }
+
+    /**
+     * @param postCache the cache used by all the entries of the vector to store
+     *                  the new elements they compute, or null to disable caching
+     */
+    public void setPostCache(LruCache<Pair<T, Symbol>, T> postCache) {
+        for (BAIncVectorEntry<T> entry : vector)
+            if (entry != null)
+                entry.setPostCache(postCache);
+    }
+
+    /**
+     * @param interner the interner of the new elements computed by the entries of
+     *                 the vector, or null to keep them as they are computed
+     */
+    public void setInterner(Interner<T> interner) {
+        for (BAIncVectorEntry<T> entry : vector)
+            if (entry != null)
+                entry.setInterner(interner);
+    }
+
+    private <E> Stream<E> stream(Collection<E> collection) {
+        return parallel ? collection.parallelStream() : collection.stream();
     }
 
     /**
@@ -51,17 +128,8 @@ public abstract class BAIncVector<T> {
      * @param entriesToCopy set of entries to copy
      */
     public void copyEntries(BAIncVector<T> toCopy, Set<State> entriesToCopy) {
-        removeMissingElements(toCopy, entriesToCopy);
-        addNewElements(toCopy, entriesToCopy);
-    }
-
-    private void removeMissingElements(BAIncVector<T> toCopy, Set<State> entriesToCopy) {
-        entriesToCopy.stream()
-                .forEach(index -> get(index).removeIf(setOfStates -> !toCopy.get(index).contains(setOfStates)));
-    }
-
-    public void addNewElements(BAIncVector<T> toCopy, Set<State> entriesToCopy) {
-        entriesToCopy.stream().forEach(index -> get(index).addAll(toCopy.get(index)));
+        stream(entriesToCopy).forEach(index -> vector.get(index.getIntIndex())
+                .copyAntichain(toCopy.vector.get(index.getIntIndex())));
     }
 
     /**
@@ -76,12 +144,40 @@ public abstract class BAIncVector<T> {
      * @return the set of entries of the vector that changed during this iteration
      */
     public Set<State> iterate(BAIncVector<T> vectorAtPreviousIteration, Set<State> frontier) {
+        // each entry reads only the vector at the previous iteration and writes only
+        // itself, so the entries can be updated in parallel
+        return stream(frontier)
+                .filter(stateInFrontier -> inDomain(stateInFrontier.getIntIndex()) && vector
+                        .get(stateInFrontier.getIntIndex()).applyIteration(vectorAtPreviousIteration))
+                .collect(Collectors.toSet());
+    }
+
+    /**
+     * Used by the worklist engine: propagates the elements that were added to the
+     * entry of the given state since its last propagation to the entries of its
+     * successors.
+     *
+     * @param state the index of the entry to propagate
+     * @return the set of successors whose entries were modified
+     */
+    public Set<State> propagateInnerFrontier(State state) {
+        List<T> elementsToPropagate = vector.get(state.getIntIndex()).takeInnerFrontier();
         Set<State> changedStates = new HashSet<>();
-        for (State stateInFrontier : frontier) {
-            BAIncVectorEntry<T> entryToUpdate = vector.get(stateInFrontier.getIntIndex());
-            boolean entryModified = entryToUpdate.applyIteration(vectorAtPreviousIteration);
-            if (entryModified)
-                changedStates.add(entryToUpdate.indexInVector());
+        if (elementsToPropagate.isEmpty())
+            return changedStates;
+        int index = state.getIntIndex();
+        for (Symbol symbol : a.alphabet()) {
+            int end = a.successorsEnd(index, symbol.id());
+            for (int i = a.successorsBegin(index, symbol.id()); i < end; i++) {
+                BAIncVectorEntry<T> successorEntry = vector.get(a.successor(i));
+                if (successorEntry == null)
+                    continue;
+                boolean entryModified = false;
+                for (T element : elementsToPropagate)
+                    entryModified = successorEntry.propagate(element, symbol) || entryModified;
+                if (entryModified)
+                    changedStates.add(successorEntry.indexInVector());
+            }
         }
         return changedStates;
     }
@@ -94,11 +190,14 @@ public abstract class BAIncVector<T> {
      *                             iteration
      */
     public void updateInnerFrontiers(BAIncVector<T> vectorAfterIteration, Set<State> changedEntries) {
-        for (BAIncVectorEntry<T> entryToUpdate : vector)
+        stream(vector).forEach(entryToUpdate -> {
+            if (entryToUpdate == null)
+                return;
             if (changedEntries.contains(entryToUpdate.indexInVector()))
                 updateInnerFrontierOfEntryThatChanged(entryToUpdate, vectorAfterIteration);
             else
                 updateInnerFrontierOfEntryThatDidNotChange(entryToUpdate);
+        });
     }
 
     /**
@@ -128,7 +227,8 @@ public abstract class BAIncVector<T> {
     public int innerFrontiersTotalSize() {
         int total = 0;
         for (var vectorEntry : vector)
-            total += vectorEntry.innerFrontierSize();
+            if (vectorEntry != null)
+                total += vectorEntry.innerFrontierSize();
         return total;
     }
 
@@ -138,50 +238,45 @@ public abstract class BAIncVector<T> {
     public long totNumberOfElementsInEntries() {
         long sum = 0;
         for (var vectorEntry : vector)
-            sum += vectorEntry.antichainSize();
+            if (vectorEntry != null)
+                sum += vectorEntry.antichainSize();
         return sum;
     }
 
     /**
      * @param other            the other vector to compare with
      * @param entriesToCompare the set of indices to compare between the two vectors
-     * @param comparator       the comparator to decide when one element is lesser
-     *                         or equal than another
      * @return true iff the entries in entriesToCompare of the two vectors are
-     *         comparable according to the comparator
+     *         comparable according to the comparator of the entries
      */
-    public boolean entriesAreComparable(BAIncVector<T> other, Set<State> entriesToCompare,
-            PartialComparator<T> comparator) {
-        return entriesToCompare.stream()
-                .allMatch(indexToCompare -> valuesInEntryAreSubsumed(indexToCompare, other, comparator));
+    public boolean entriesAreComparable(BAIncVector<T> other, Set<State> entriesToCompare) {
+        return stream(entriesToCompare).allMatch(indexToCompare -> valuesInEntryAreSubsumed(indexToCompare, other));
     }
 
     /**
      * @param indexToCompare index for which we have to compare the entries
      * @param other          the other vector to compare with
-     * @param comparator     the comparator to decide when one element is lesser or
-     *                       equal than another
      * @return true iff the values in the index of this vector are subsumed by the
-     *         values in the index of the other vector according to the comparator
+     *         values in the index of the other vector according to the comparator,
+     *         i.e. each of them is greater or equal than one of the other values.
+     *         Since the antichains keep the minimal elements, this means that the
+     *         entry of this vector brings no new information
      */
-    private boolean valuesInEntryAreSubsumed(State indexToCompare, BAIncVector<T> other,
-            PartialComparator<T> comparator) {
-        Set<T> myEntryValues = get(indexToCompare);
-        Set<T> itsEntryValues = other.get(indexToCompare);
-        return myEntryValues.stream()
-                .allMatch(myValue -> thereExistsOneGreaterElement(myValue, itsEntryValues, comparator));
+    private boolean valuesInEntryAreSubsumed(State indexToCompare, BAIncVector<T> other) {
+        BAIncVectorEntry<T> itsEntry = other.vector.get(indexToCompare.getIntIndex());
+        return get(indexToCompare).stream().allMatch(itsEntry::containsLesserOrEqual);
     }
 
     /**
-     * @param element    element to compare to elements
-     * @param elements   set of elements to compare
-     * @param comparator comparator that decides when one element is lesser or equal
-     *                   than another
-     * @return true iff exists one element e in elements such that element is lesser
-     *         or equal than e
+     * @return the total number of comparisons between elements that the entries
+     *         of the vector avoided
      */
-    private boolean thereExistsOneGreaterElement(T element, Set<T> elements, PartialComparator<T> comparator) {
-        return elements.stream().anyMatch(elementInSet -> comparator.lesserOrEqual(element, elementInSet));
+    public long avoidedComparisons() {
+        long sum = 0;
+        for (var vectorEntry : vector)
+            if (vectorEntry != null)
+                sum += vectorEntry.avoidedComparisons();
+        return sum;
     }
 
     protected BAIncVector(BuchiAutomaton a, BuchiAutomaton b) {
@@ -199,7 +294,7 @@ public abstract class BAIncVector<T> {
         while (it.hasNext()) {
             BAIncVectorEntry<T> vecEntry = it.next();
             // We printing values for final states only
-            if (vecEntry.indexInVector().isFinal()) {
+            if (vecEntry != null && vecEntry.indexInVector().isFinal()) {
                 builder.append(vecEntry.indexInVector());
                 builder.append("→#");
                 builder.append(vecEntry.antichainSize());
@@ -1,18 +1,25 @@
 package bait.algorithm;
 
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 
+import bait.automata.BuchiAutomaton;
 import bait.automata.State;
 import bait.automata.Symbol;
-import bait.comparator.PartialComparator;
+import bait.collections.Interner;
+import bait.collections.LruCache;
 import bait.collections.Pair;
+import bait.comparator.PartialComparator;
 
 public abstract class BAIncVectorEntry<T> {
 
     private final State indexInVector;
     private final Antichain<T> antichain;
     private final Set<T> innerFrontier;
+    private LruCache<Pair<T, Symbol>, T> postCache;
+    private Interner<T> interner;
 
     public abstract String toString();
 
@@ -28,6 +35,33 @@ public abstract class BAIncVectorEntry<T> {
         return antichain.size();
     }
 
+    /**
+     * @return the number of comparisons between elements that the antichain of
+     *         this entry avoided
+     */
+    public long avoidedComparisons() {
+        return antichain.avoidedComparisons();
+    }
+
+    /**
+     * @param element the element to compare
+     * @return true iff the entry contains an element that is lesser or equal than
+     *         the given one
+     */
+    public boolean containsLesserOrEqual(T element) {
+        return antichain.containsLesserOrEqual(element);
+    }
+
+    /**
+     * Replaces the elements of this entry with the elements of another entry with
+     * the same index.
+     *
+     * @param other the entry to copy
+     */
+    public void copyAntichain(BAIncVectorEntry<T> other) {
+        antichain.copyFrom(other.antichain);
+    }
+
     /**
      * Applies the Greatest Lower Bound to the entry and the new element. The
      * comparator with which the entry was created determines the result of the glb.
@@ -48,28 +82,36 @@ public abstract class BAIncVectorEntry<T> {
      * @return true iff the entry gets modified
      */
     public boolean applyIteration(BAIncVector<T> vectorAtPreviousIteration) {
+        BuchiAutomaton a = vectorAtPreviousIteration.a;
+        int index = indexInVector().getIntIndex();
         boolean entryModified = false;
-        for (Pair<State, Symbol> predecessor : indexInVector().predecessors()) {
-            boolean entryModifiedWithThisPredecessor = updateWrtPredecessor(predecessor, vectorAtPreviousIteration);
-            entryModified = entryModifiedWithThisPredecessor || entryModified;
+        for (Symbol symbol : a.alphabet()) {
+            int end = a.predecessorsEnd(index, symbol.id());
+            for (int i = a.predecessorsBegin(index, symbol.id()); i < end; i++) {
+                boolean entryModifiedWithThisPredecessor = updateWrtPredecessor(a.predecessor(i), symbol,
+                        vectorAtPreviousIteration);
+                entryModified = entryModifiedWithThisPredecessor || entryModified;
+            }
         }
         return entryModified;
     }
 
     /**
      * Updates the value of the entry with respect to a certain predecessor, which
-     * is specified as a pair of a state and the symbol with which the predecessor
-     * reaches the state represented by this vector entry.
+     * is specified as the index of a state and the symbol with which the
+     * predecessor reaches the state represented by this vector entry.
      *
-     * @param predecessor
+     * @param predecessorIndex
+     * @param predecessorSymbol
      * @param vectorAtPreviousIteration
      * @return true iff the entry gets modified
      */
-    private boolean updateWrtPredecessor(Pair<State, Symbol> predecessor, BAIncVector<T> vectorAtPreviousIteration) {
-        State predecessorState = predecessor.fst();
-        Symbol predecessorSymbol = predecessor.snd();
-        Set<T> predecessorValueAtLastIteration = vectorAtPreviousIteration.get(predecessorState);
-        BAIncVectorEntry<T> predecessorEntry = vectorAtPreviousIteration.vector.get(predecessorState.getIntIndex());
+    private boolean updateWrtPredecessor(int predecessorIndex, Symbol predecessorSymbol,
+            BAIncVector<T> vectorAtPreviousIteration) {
+        BAIncVectorEntry<T> predecessorEntry = vectorAtPreviousIteration.vector.get(predecessorIndex);
+        if (predecessorEntry == null)
+            return false;
+        Set<T> predecessorValueAtLastIteration = predecessorEntry.getAntichain();
         boolean entryModified = false;
         for (T predecessorElementInPreviousIteration : predecessorValueAtLastIteration)
             // we perform the following check to be sure that the element we're considering
@@ -85,10 +127,40 @@ public abstract class BAIncVectorEntry<T> {
 
     private boolean updateWrtPredecessorElementAtPreviousIteration(T predecessorElementInPre,
             Symbol predecessorSymbol) {
-        T newElement = getNewElement(predecessorElementInPre, predecessorSymbol);
+        T newElement = newElement(predecessorElementInPre, predecessorSymbol);
         return glbWith(newElement);
     }
 
+    /**
+     * @param postCache the cache of the results of getNewElement, or null to
+     *                  disable caching. The cache can be shared by all the entries
+     *                  of vectors with the same type, since getNewElement depends
+     *                  only on the element and the symbol
+     */
+    public void setPostCache(LruCache<Pair<T, Symbol>, T> postCache) {
+        this.postCache = postCache;
+    }
+
+    /**
+     * @param interner the interner of the results of getNewElement, or null to
+     *                 disable interning
+     */
+    public void setInterner(Interner<T> interner) {
+        this.interner = interner;
+    }
+
+    private T newElement(T predecessorElement, Symbol predecessorSymbol) {
+        if (postCache == null)
+            return internedNewElement(predecessorElement, predecessorSymbol);
+        return postCache.computeIfAbsent(Pair.of(predecessorElement, predecessorSymbol),
+                key -> internedNewElement(key.fst(), key.snd()));
+    }
+
+    private T internedNewElement(T predecessorElement, Symbol predecessorSymbol) {
+        T newElement = getNewElement(predecessorElement, predecessorSymbol);
+        return interner == null ? newElement : interner.intern(newElement);
+    }
+
     /**
      * This is the only information that changes between entries in the X and Y
      * vectors: how to compute the next element applying either p1 or p2. For the X
@@ -118,6 +190,43 @@ public abstract class BAIncVectorEntry<T> {
                 innerFrontier.add(newValue);
     }
 
+    /**
+     * Used by the worklist engine, where the inner frontier of an entry is the set
+     * of elements added to the entry that were not yet propagated to the entries
+     * of its successors. Applies the glb to the entry and the element obtained
+     * from the given predecessor element and symbol, and if the new element is
+     * added to the entry, it is also added to the inner frontier.
+     *
+     * @param predecessorElement element of the entry of a predecessor
+     * @param predecessorSymbol  the symbol with which the predecessor reaches the
+     *                           state
+     * @return true iff the entry gets modified
+     */
+    public boolean propagate(T predecessorElement, Symbol predecessorSymbol) {
+        T newElement = newElement(predecessorElement, predecessorSymbol);
+        // the glb modifies the antichain iff the new element is added to it
+        if (!glbWith(newElement))
+            return false;
+        innerFrontier.add(newElement);
+        return true;
+    }
+
+    /**
+     * Used by the worklist engine: empties the inner frontier.
+     *
+     * @return the elements of the inner frontier that are still in the entry, as
+     *         the others were subsumed by elements that are in the inner frontier
+     *         as well
+     */
+    public List<T> takeInnerFrontier() {
+        List<T> elementsToPropagate = new ArrayList<>(innerFrontier.size());
+        for (T element : innerFrontier)
+            if (antichain.elements().contains(element))
+                elementsToPropagate.add(element);
+        innerFrontier.clear();
+        return elementsToPropagate;
+    }
+
     public void clearInnerFrontier() {
         innerFrontier.clear();
     }
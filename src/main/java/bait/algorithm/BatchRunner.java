@@ -0,0 +1,242 @@
+package bait.algorithm;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import bait.automata.AutomatonBuilder;
+import bait.automata.BuchiAutomaton;
+import bait.automata.AutomatonParser.ParseError;
+import bait.preprocessing.Preprocessor;
+import bait.utility.Args;
+import bait.utility.ArgsParser;
+import bait.utility.Json;
+import bait.utility.Settings;
+import bait.utility.Timer;
+
+/**
+ * Checks the inclusion for each pair of automata of a directory or of a
+ * manifest, running each pair some times to warm up the JVM and then some
+ * measured times. Each measured run is written on the standard output as a row
+ * in CSV or JSON format, and the errors and the summary of the suite on the
+ * standard error, so that the rows can be redirected to a file as they are.
+ */
+public final class BatchRunner {
+
+    private static final String[] COLUMNS = { "pair", "a", "b", "repetition", "included", "parse_ms",
+            "preprocess_ms", "run_ms", "states_a", "states_b", "x_iterations", "y_iterations", "x_antichains_size",
+            "y_average_antichains_size", "peak_heap_bytes" };
+
+    private final PrintStream out = System.out;
+    private boolean firstRow = true;
+    private AutomatonCache cache; // null if the automata are not cached
+
+    public void run(Args arguments) throws IOException, ParseError {
+        Runner.assertFileExists(arguments.batchSource().toFile());
+        cache = arguments.automataCacheSize() > 0 ? new AutomatonCache(arguments.automataCacheSize()) : null;
+        List<Path[]> pairs = Files.isDirectory(arguments.batchSource()) ? discoverPairs(arguments.batchSource())
+                : readManifest(arguments.batchSource());
+        beginRows(arguments.format());
+        Timer suiteTimer = new Timer();
+        suiteTimer.start();
+        int measuredRuns = 0;
+        int failedPairs = 0;
+        for (Path[] pair : pairs) {
+            try {
+                for (int i = 0; i < arguments.warmup(); i++)
+                    check(pair, arguments);
+                for (int repetition = 1; repetition <= arguments.repetitions(); repetition++) {
+                    writeRow(arguments.format(), check(pair, arguments).row(pair, repetition));
+                    measuredRuns++;
+                }
+            } catch (ParseError | AutomatonBuilder.BuildError | IOException e) {
+                System.err.println("Skipping " + pair[0] + " and " + pair[1] + ": " + e.getMessage());
+                failedPairs++;
+            } catch (RuntimeException e) {
+                // a failed check of one pair does not stop the suite
+                System.err.println("Skipping " + pair[0] + " and " + pair[1] + ": " + e);
+                failedPairs++;
+            }
+        }
+        suiteTimer.stop();
+        endRows(arguments.format());
+        System.err.println("Checked " + (pairs.size() - failedPairs) + " pairs out of " + pairs.size() + " with "
+                + measuredRuns + " measured runs in " + suiteTimer.getMeasuredTime() + "ms, warmup included");
+        if (cache != null)
+            System.err.println("Automata cache hits/misses: " + cache.hits() + "/" + cache.misses());
+    }
+
+    /**
+     * The pairs of a directory are made of the automata whose names contain the
+     * sub marker, and of the first automaton, by name, whose name has the same
+     * prefix followed by the sup marker.
+     */
+    static List<Path[]> discoverPairs(Path directory) throws IOException {
+        List<Path> automata;
+        try (Stream<Path> files = Files.list(directory)) {
+            automata = files.filter(path -> ArgsParser.isAutomataFormat(path.getFileName().toString())).sorted()
+                    .collect(Collectors.toList());
+        }
+        List<Path[]> pairs = new ArrayList<>();
+        for (Path sub : automata) {
+            String name = sub.getFileName().toString();
+            int marker = name.indexOf(Settings.BATCH_SUB_MARKER);
+            if (marker < 0)
+                continue;
+            String supPrefix = name.substring(0, marker) + Settings.BATCH_SUP_MARKER;
+            Path sup = automata.stream().filter(path -> path.getFileName().toString().startsWith(supPrefix))
+                    .findFirst().orElse(null);
+            if (sup == null)
+                System.err.println("Skipping " + sub + ": no automaton named " + supPrefix + "*");
+            else
+                pairs.add(new Path[] { sub, sup });
+        }
+        return pairs;
+    }
+
+    /**
+     * A manifest has one pair per line, the path of A and the path of B separated
+     * by whitespace. Empty lines and lines starting with '#' are ignored, and
+     * relative paths are relative to the directory of the manifest.
+     */
+    static List<Path[]> readManifest(Path manifest) throws IOException, ParseError {
+        Path directory = manifest.toAbsolutePath().getParent();
+        List<Path[]> pairs = new ArrayList<>();
+        List<String> lines = Files.readAllLines(manifest);
+        for (int i = 0; i < lines.size(); i++) {
+            String line = lines.get(i).trim();
+            if (line.isEmpty() || line.startsWith("#"))
+                continue;
+            String[] paths = line.split("\\s+");
+            if (paths.length != 2)
+                throw new ParseError(
+                        "Line " + (i + 1) + " of " + manifest + " must contain the paths of two automata");
+            pairs.add(new Path[] { directory.resolve(paths[0]), directory.resolve(paths[1]) });
+        }
+        return pairs;
+    }
+
+    private Measures check(Path[] pair, Args arguments) throws IOException, ParseError {
+        System.gc();
+        List<MemoryPoolMXBean> heapPools = heapPools();
+        heapPools.forEach(MemoryPoolMXBean::resetPeakUsage);
+        Measures measures = new Measures();
+        Timer parseTimer = new Timer();
+        parseTimer.start();
+        BuchiAutomaton[] automata = cache == null ? Runner.readPair(pair[0], pair[1])
+                : cache.readPair(pair[0], pair[1]);
+        parseTimer.stop();
+        measures.parseTime = parseTimer.getMeasuredTime();
+        Preprocessor preprocessor = new Preprocessor(arguments);
+        BuchiAutomaton a = preprocess(preprocessor, automata[0], "A");
+        BuchiAutomaton b = preprocess(preprocessor, automata[1], "B");
+        measures.preprocessTime = preprocessor.getRuntime();
+        measures.statesA = a.numberOfStates();
+        measures.statesB = b.numberOfStates();
+        BAInc inclusionAlgorithm = new BAInc(arguments);
+        measures.included = inclusionAlgorithm.run(a, b);
+        measures.runTime = inclusionAlgorithm.getRuntime();
+        measures.xIterations = (long) inclusionAlgorithm.getXIterations();
+        measures.yIterations = (long) inclusionAlgorithm.getYTotalIterations();
+        measures.xSize = (long) inclusionAlgorithm.getXSize();
+        measures.yAverageSize = inclusionAlgorithm.getYAverageSize();
+        for (MemoryPoolMXBean pool : heapPools)
+            measures.peakHeap += pool.getPeakUsage().getUsed();
+        return measures;
+    }
+
+    private BuchiAutomaton preprocess(Preprocessor preprocessor, BuchiAutomaton automaton, String name) {
+        return cache == null ? preprocessor.preprocess(automaton, name)
+                : cache.preprocess(preprocessor, automaton, name);
+    }
+
+    private static List<MemoryPoolMXBean> heapPools() {
+        List<MemoryPoolMXBean> pools = new ArrayList<>();
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans())
+            if (pool.getType() == MemoryType.HEAP && pool.isValid())
+                pools.add(pool);
+        return pools;
+    }
+
+    private void beginRows(Args.Format format) {
+        if (format == Args.Format.CSV)
+            out.println(String.join(",", COLUMNS));
+        else
+            out.println("[");
+    }
+
+    private void writeRow(Args.Format format, Object[] values) {
+        StringBuilder row = new StringBuilder();
+        if (format == Args.Format.CSV) {
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0)
+                    row.append(',');
+                row.append(values[i] instanceof String ? csvString((String) values[i]) : values[i]);
+            }
+        } else {
+            if (!firstRow)
+                out.println(",");
+            Map<String, Object> members = new LinkedHashMap<>();
+            for (int i = 0; i < values.length; i++)
+                members.put(COLUMNS[i], values[i]);
+            row.append("  ").append(Json.object(members));
+        }
+        firstRow = false;
+        if (format == Args.Format.CSV)
+            out.println(row);
+        else
+            out.print(row);
+        out.flush();
+    }
+
+    private void endRows(Args.Format format) {
+        if (format == Args.Format.JSON) {
+            if (!firstRow)
+                out.println();
+            out.println("]");
+        }
+    }
+
+    private static String csvString(String s) {
+        if (s.indexOf(',') < 0 && s.indexOf('"') < 0 && s.indexOf('\n') < 0)
+            return s;
+        return '"' + s.replace("\"", "\"\"") + '"';
+    }
+
+    /**
+     * The measures of one run of one pair.
+     */
+    private static final class Measures {
+        private boolean included;
+        private long parseTime;
+        private long preprocessTime;
+        private long runTime;
+        private int statesA;
+        private int statesB;
+        private long xIterations;
+        private long yIterations;
+        private long xSize;
+        private double yAverageSize;
+        private long peakHeap;
+
+        private Object[] row(Path[] pair, int repetition) {
+            String name = pair[0].getFileName().toString();
+            int marker = name.indexOf(Settings.BATCH_SUB_MARKER);
+            String pairName = marker > 0 ? name.substring(0, marker) : name;
+            return new Object[] { pairName, pair[0].toString(), pair[1].toString(), repetition, included, parseTime,
+                    preprocessTime, runTime, statesA, statesB, xIterations, yIterations, xSize, yAverageSize,
+                    peakHeap };
+        }
+    }
+
+}
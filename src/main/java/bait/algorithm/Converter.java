@@ -0,0 +1,32 @@
+package bait.algorithm;
+
+import java.io.IOException;
+
+import bait.automata.AutomatonSource;
+import bait.automata.BinaryAutomatonFormat;
+import bait.automata.BuchiAutomaton;
+import bait.automata.AutomatonParser.ParseError;
+import bait.collections.Interner;
+import bait.utility.Args;
+import bait.utility.Timer;
+
+/**
+ * Converts one automaton to the binary format of {@link BinaryAutomatonFormat},
+ * so that the following runs can map it instead of parsing it.
+ */
+public final class Converter {
+
+    public void convert(Args arguments) throws IOException, ParseError {
+        Runner.assertFileExists(arguments.conversionSource().toFile());
+        Timer timer = new Timer();
+        timer.start();
+        AutomatonSource source = Runner.readAutomaton(arguments.conversionSource(), new Interner<>());
+        BuchiAutomaton automaton = source.build(source.alphabet());
+        BinaryAutomatonFormat.write(automaton, arguments.conversionTarget());
+        timer.stop();
+        System.out.println("Converted " + arguments.conversionSource() + " (" + automaton.numberOfStates()
+                + " states) to " + arguments.conversionTarget());
+        System.out.println("Time to convert(ms): " + timer.getMeasuredTime());
+    }
+
+}
@@ -0,0 +1,241 @@
+package bait.algorithm;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+import bait.automata.AutomatonBuilder;
+import bait.automata.AutomatonSource;
+import bait.automata.BuchiAutomaton;
+import bait.automata.AutomatonParser.ParseError;
+import bait.collections.Interner;
+import bait.preprocessing.Preprocessor;
+import bait.utility.Args;
+import bait.utility.Timer;
+
+/**
+ * Checks the inclusion of many automata in the same automaton b, such as many
+ * implementations against one specification. What depends only on b is
+ * computed once, when this object is created, and is shared by the checks,
+ * which can run at the same time.
+ */
+public final class OneToManyInclusion {
+
+    /**
+     * The result of the check of one automaton: either its verdict or the error
+     * that stopped it.
+     */
+    public static final class Result {
+
+        private final int index;
+        private final boolean included;
+        private final int states;
+        private final long runtime;
+        private final long totalTime;
+        private final String error;
+
+        private Result(int index, boolean included, int states, long runtime, long totalTime) {
+            this.index = index;
+            this.included = included;
+            this.states = states;
+            this.runtime = runtime;
+            this.totalTime = totalTime;
+            this.error = null;
+        }
+
+        private Result(int index, String error) {
+            this.index = index;
+            this.included = false;
+            this.states = 0;
+            this.runtime = 0;
+            this.totalTime = 0;
+            this.error = error;
+        }
+
+        /**
+         * @return the position of the checked automaton in the list
+         */
+        public int index() {
+            return index;
+        }
+
+        /**
+         * @return true iff the language of the automaton is a subset of the language
+         *         of b. It is false if the check failed
+         */
+        public boolean included() {
+            return included;
+        }
+
+        /**
+         * @return the number of states of the automaton that was checked, after the
+         *         preprocessing
+         */
+        public int states() {
+            return states;
+        }
+
+        /**
+         * @return the time to run the check in milliseconds
+         */
+        public long runtime() {
+            return runtime;
+        }
+
+        /**
+         * @return the time to read, preprocess and check the automaton in
+         *         milliseconds
+         */
+        public long totalTime() {
+            return totalTime;
+        }
+
+        /**
+         * @return the reason why the check failed, or null if it did not
+         */
+        public String error() {
+            return error;
+        }
+
+    }
+
+    /**
+     * Checks the automaton of one position of a list.
+     */
+    @FunctionalInterface
+    private interface Check {
+        Result check(int index) throws IOException, ParseError;
+    }
+
+    private final Args args;
+    private final PreparedAutomaton preparedB;
+
+    /**
+     * @param args the options of the checks
+     * @param b    the second automaton of all the checks, already preprocessed
+     */
+    public OneToManyInclusion(Args args, BuchiAutomaton b) {
+        this.args = args;
+        this.preparedB = new PreparedAutomaton(b, args);
+    }
+
+    public BuchiAutomaton b() {
+        return preparedB.automaton();
+    }
+
+    /**
+     * It can be called by many threads at the same time.
+     *
+     * @param a an automaton built over the same alphabet as b
+     * @return true iff the language of a is a subset of the language of b
+     */
+    public boolean check(BuchiAutomaton a) {
+        return newRun(a).run(a, preparedB);
+    }
+
+    /**
+     * Checks the automata in parallel with {@link Args#workers()} threads. The
+     * listener is called by the calling thread, once for each automaton, in the
+     * order in which the checks finish.
+     *
+     * @param automata automata built over the same alphabet as b
+     * @param listener receives the results
+     */
+    public void checkAll(List<BuchiAutomaton> automata, Consumer<Result> listener) throws InterruptedException {
+        checkAll(automata.size(), index -> {
+            Timer timer = new Timer();
+            timer.start();
+            BuchiAutomaton a = automata.get(index);
+            BAInc inclusionAlgorithm = newRun(a);
+            boolean included = inclusionAlgorithm.run(a, preparedB);
+            timer.stop();
+            return new Result(index, included, a.numberOfStates(), inclusionAlgorithm.getRuntime(),
+                    timer.getMeasuredTime());
+        }, listener);
+    }
+
+    /**
+     * Same as {@link #checkAll(List, Consumer)}, but the automata are read from
+     * the files and preprocessed by the workers. An automaton with symbols that
+     * are not in b is checked on its own against the file
+     * {@link Args#secondAutomatonPath()} of b, over the union of the alphabets.
+     *
+     * @param paths    the files of the automata
+     * @param listener receives the results
+     */
+    public void checkAllFiles(List<Path> paths, Consumer<Result> listener) throws InterruptedException {
+        checkAll(paths.size(), index -> {
+            Timer timer = new Timer();
+            timer.start();
+            AutomatonSource source = Runner.readAutomaton(paths.get(index), new Interner<>());
+            Preprocessor preprocessor = new Preprocessor(args);
+            BuchiAutomaton a;
+            BAInc inclusionAlgorithm;
+            boolean included;
+            if (b().alphabet().containsAll(source.alphabet())) {
+                a = preprocessor.preprocess(source.build(b().alphabet()), "A");
+                inclusionAlgorithm = newRun(a);
+                included = inclusionAlgorithm.run(a, preparedB);
+            } else {
+                BuchiAutomaton[] automata = Runner.readPair(paths.get(index), args.secondAutomatonPath());
+                a = preprocessor.preprocess(automata[0], "A");
+                BuchiAutomaton b = preprocessor.preprocess(automata[1], "B");
+                inclusionAlgorithm = new BAInc(args);
+                included = inclusionAlgorithm.run(a, b);
+            }
+            timer.stop();
+            return new Result(index, included, a.numberOfStates(), inclusionAlgorithm.getRuntime(),
+                    timer.getMeasuredTime());
+        }, listener);
+    }
+
+    /**
+     * Runs the checks of the given number of automata in the workers. A check
+     * that fails yields a result with its error, and the others go on.
+     */
+    private void checkAll(int numberOfAutomata, Check check, Consumer<Result> listener)
+            throws InterruptedException {
+        ExecutorService workers = Executors.newFixedThreadPool(args.workers());
+        CompletionService<Result> checks = new ExecutorCompletionService<>(workers);
+        try {
+            for (int i = 0; i < numberOfAutomata; i++) {
+                int index = i;
+                checks.submit(() -> {
+                    try {
+                        return check.check(index);
+                    } catch (IOException | ParseError | AutomatonBuilder.BuildError e) {
+                        return new Result(index, e.getMessage());
+                    } catch (RuntimeException e) {
+                        return new Result(index, e.toString());
+                    }
+                });
+            }
+            for (int i = 0; i < numberOfAutomata; i++)
+                listener.accept(checks.take().get());
+        } catch (ExecutionException e) {
+            // the checks return their errors, so only an Error of the JVM is left
+            if (e.getCause() instanceof Error)
+                throw (Error) e.getCause();
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            workers.shutdownNow();
+        }
+    }
+
+    /**
+     * @return the run that checks a, whose runtime and statistics can be read
+     *         once it is over
+     */
+    BAInc newRun(BuchiAutomaton a) {
+        if (!a.alphabet().equals(b().alphabet()))
+            throw new IllegalArgumentException("The automata must be built over the same alphabet as b");
+        return new BAInc(args);
+    }
+
+}
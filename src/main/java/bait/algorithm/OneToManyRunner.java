@@ -0,0 +1,126 @@
+package bait.algorithm;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import bait.automata.AutomatonSource;
+import bait.automata.BuchiAutomaton;
+import bait.automata.AutomatonParser.ParseError;
+import bait.collections.Interner;
+import bait.preprocessing.Preprocessor;
+import bait.utility.Args;
+import bait.utility.ArgsParser;
+import bait.utility.Json;
+import bait.utility.Timer;
+
+/**
+ * Checks the inclusion in B of each automaton of a directory or of a manifest,
+ * with {@link OneToManyInclusion#checkAllFiles}. B is read and preprocessed
+ * once, each A is read, preprocessed and checked by one of the workers, and
+ * each result is written on the standard output as a JSON object on one line
+ * as soon as it is known, such as
+ *
+ * <pre>
+ * {"a": "path/to/A.ba", "included": true, "states": 12, "run_ms": 3, "total_ms": 5}
+ * </pre>
+ *
+ * or {"a": "path/to/A.ba", "error": "..."}. The summary goes on the standard
+ * error.
+ */
+public final class OneToManyRunner {
+
+    private final PrintStream out = System.out;
+
+    public void run(Args arguments) throws IOException, ParseError {
+        Runner.assertFileExists(arguments.manySource().toFile());
+        Runner.assertFileExists(arguments.secondAutomatonPath().toFile());
+        // the results are written on the standard output as the checks finish
+        Args checkArguments = arguments.copy();
+        checkArguments.setDebugLevel(0);
+        List<Path> paths = Files.isDirectory(arguments.manySource())
+                ? listAutomata(arguments.manySource(), arguments.secondAutomatonPath())
+                : readManifest(arguments.manySource());
+
+        Timer suiteTimer = new Timer();
+        suiteTimer.start();
+        Timer preparationTimer = new Timer();
+        preparationTimer.start();
+        AutomatonSource sourceB = Runner.readAutomaton(arguments.secondAutomatonPath(), new Interner<>());
+        BuchiAutomaton b = new Preprocessor(checkArguments).preprocess(sourceB.build(sourceB.alphabet()), "B");
+        OneToManyInclusion inclusion = new OneToManyInclusion(checkArguments, b);
+        preparationTimer.stop();
+
+        int[] included = { 0 };
+        int[] failed = { 0 };
+        try {
+            inclusion.checkAllFiles(paths, result -> {
+                if (result.error() != null)
+                    failed[0]++;
+                else if (result.included())
+                    included[0]++;
+                out.println(Json.object(row(paths.get(result.index()), result)));
+                out.flush();
+            });
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        suiteTimer.stop();
+        System.err.println("Checked " + (paths.size() - failed[0]) + " automata out of " + paths.size() + " against "
+                + arguments.secondAutomatonPath() + " in " + suiteTimer.getMeasuredTime() + "ms, "
+                + preparationTimer.getMeasuredTime() + "ms to prepare B: " + included[0] + " included");
+    }
+
+    /**
+     * @return the row of the result of the automaton at the given path
+     */
+    private static Map<String, Object> row(Path path, OneToManyInclusion.Result result) {
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("a", path.toString());
+        if (result.error() != null) {
+            row.put("error", result.error());
+            return row;
+        }
+        row.put("included", result.included());
+        row.put("states", result.states());
+        row.put("run_ms", result.runtime());
+        row.put("total_ms", result.totalTime());
+        return row;
+    }
+
+    /**
+     * @return the automata of the directory, by name, except B
+     */
+    static List<Path> listAutomata(Path directory, Path b) throws IOException {
+        Path normalizedB = b.toAbsolutePath().normalize();
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> ArgsParser.isAutomataFormat(path.getFileName().toString()))
+                    .filter(path -> !path.toAbsolutePath().normalize().equals(normalizedB)).sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * A manifest has the path of one automaton per line. Empty lines and lines
+     * starting with '#' are ignored, and relative paths are relative to the
+     * directory of the manifest.
+     */
+    static List<Path> readManifest(Path manifest) throws IOException {
+        Path directory = manifest.toAbsolutePath().getParent();
+        List<Path> paths = new ArrayList<>();
+        for (String line : Files.readAllLines(manifest)) {
+            line = line.trim();
+            if (!line.isEmpty() && !line.startsWith("#"))
+                paths.add(directory.resolve(line));
+        }
+        return paths;
+    }
+
+}
@@ -0,0 +1,84 @@
+package bait.algorithm;
+
+import bait.automata.BuchiAutomaton;
+import bait.automata.Simulation;
+import bait.automata.Symbol;
+import bait.collections.LruCache;
+import bait.collections.Pair;
+import bait.collections.RelationPair;
+import bait.collections.StateSet;
+import bait.comparator.PartialComparator;
+import bait.comparator.XInclusionComparator;
+import bait.comparator.XSimulationComparator;
+import bait.comparator.YInclusionComparator;
+import bait.comparator.YSimulationComparator;
+import bait.utility.Args;
+
+/**
+ * What the inclusion check derives from the second automaton alone: its
+ * contexts, its simulation, and the caches of the post images, whose keys and
+ * values are sets and relations of states of b. It is computed once and shared
+ * by the runs that check many automata against the same b, also concurrently,
+ * since all its parts are immutable or thread-safe. The caches of the
+ * quasiorders, which grow with the elements that a run reaches, belong to each
+ * run instead, so that their memory is freed when the run is over.
+ */
+final class PreparedAutomaton {
+
+    private final BuchiAutomaton b;
+    // null if the elements are ordered by inclusion
+    private final Simulation simulation;
+    // null if the post images are not cached
+    private final LruCache<Pair<StateSet, Symbol>, StateSet> xPostCache;
+    private final LruCache<Pair<RelationPair, Symbol>, RelationPair> yPostCache;
+
+    /**
+     * The simulation order compares the elements up to the direct simulation of b.
+     * It is sound because the elements are sets and relations reached by words in
+     * b, and direct simulation is preserved by post images and by the final
+     * states, so a lasso accepted from some state is also accepted from each
+     * state that simulates it.
+     */
+    PreparedAutomaton(BuchiAutomaton b, Args args) {
+        this.b = b;
+        simulation = args.order() == Args.Order.SIMULATION ? Simulation.of(b, Simulation.Kind.DIRECT) : null;
+        if (args.postCacheSize() > 0) {
+            xPostCache = new LruCache<>(args.postCacheSize());
+            yPostCache = new LruCache<>(args.postCacheSize());
+        } else {
+            xPostCache = null;
+            yPostCache = null;
+        }
+        // b keeps its contexts, so the runs find them already computed
+        b.context();
+        b.finalContext();
+    }
+
+    BuchiAutomaton automaton() {
+        return b;
+    }
+
+    /**
+     * @return a new quasiorder of the sets of states of b, for one run
+     */
+    PartialComparator<StateSet> newXComparator() {
+        return simulation == null ? new XInclusionComparator() : new XSimulationComparator(simulation);
+    }
+
+    /**
+     * @return a new quasiorder of the pairs of relations over the states of b, for
+     *         one run
+     */
+    PartialComparator<RelationPair> newYComparator() {
+        return simulation == null ? new YInclusionComparator() : new YSimulationComparator(simulation);
+    }
+
+    LruCache<Pair<StateSet, Symbol>, StateSet> xPostCache() {
+        return xPostCache;
+    }
+
+    LruCache<Pair<RelationPair, Symbol>, RelationPair> yPostCache() {
+        return yPostCache;
+    }
+
+}
@@ -0,0 +1,246 @@
+package bait.algorithm;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Phaser;
+import java.util.concurrent.Semaphore;
+
+import bait.automata.AutomatonBuilder;
+import bait.automata.BuchiAutomaton;
+import bait.automata.Simulation;
+import bait.automata.AutomatonParser.ParseError;
+import bait.preprocessing.Preprocessor;
+import bait.utility.Args;
+import bait.utility.Json;
+import bait.utility.Timer;
+
+/**
+ * Answers inclusion queries in a single long-running process, so that the
+ * startup of the JVM and the warmup of the JIT are paid once for all of them.
+ * Each query is a JSON object on one line, such as
+ *
+ * <pre>
+ * {"id": 1, "a": "path/to/A.ba", "b": "path/to/B.ba", "engine": "worklist"}
+ * </pre>
+ *
+ * where "id" is optional and copied into the answer, and "engine", "order",
+ * "trim" and "quotient" override the options the server was started with. A
+ * "quotient" that is null or "none" turns off the quotient of the server. The
+ * answer is a JSON object on one line, either
+ *
+ * <pre>
+ * {"id": 1, "included": true, "run_ms": 12, "total_ms": 20}
+ * </pre>
+ *
+ * or {"id": 1, "error": "..."}. The queries are read from stdin, or from the
+ * connections to a local port, and are answered by a bounded pool of workers,
+ * so the answers of one stream can come in a different order than the queries.
+ */
+public final class QueryServer {
+
+    // queries that each worker can have waiting, besides the one it is answering
+    private static final int QUEUED_QUERIES_PER_WORKER = 4;
+
+    private final Args defaults;
+    private final ExecutorService workers;
+    // bounds the queries that are read but not answered yet, so that a fast client
+    // blocks instead of filling the memory with queries
+    private final Semaphore pendingQueries;
+    private final AutomatonCache cache; // null if the automata are not cached
+
+    public QueryServer(Args arguments) {
+        this.defaults = arguments.copy();
+        // the answers are written on the same stream as the protocol
+        this.defaults.setDebugLevel(0);
+        this.workers = Executors.newFixedThreadPool(arguments.workers());
+        this.pendingQueries = new Semaphore(arguments.workers() * (1 + QUEUED_QUERIES_PER_WORKER));
+        this.cache = arguments.automataCacheSize() > 0 ? new AutomatonCache(arguments.automataCacheSize()) : null;
+    }
+
+    /**
+     * Answers the queries until the end of stdin, or forever if the server listens
+     * on a port.
+     */
+    public void serve() throws IOException {
+        try {
+            if (defaults.port() == 0)
+                serve(System.in, System.out);
+            else
+                listen(defaults.port());
+        } finally {
+            workers.shutdown();
+        }
+    }
+
+    private void listen(int port) throws IOException {
+        try (ServerSocket serverSocket = new ServerSocket(port, 0, InetAddress.getLoopbackAddress())) {
+            System.err.println("Listening on " + serverSocket.getLocalSocketAddress());
+            while (true) {
+                Socket socket = serverSocket.accept();
+                Thread connection = new Thread(() -> serveConnection(socket), "bait-connection");
+                connection.setDaemon(true);
+                connection.start();
+            }
+        }
+    }
+
+    private void serveConnection(Socket socket) {
+        try (socket) {
+            serve(socket.getInputStream(), socket.getOutputStream());
+        } catch (IOException e) {
+            System.err.println("Connection " + socket.getRemoteSocketAddress() + " closed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Answers the queries of one stream, and returns when the stream is over and
+     * all its queries have been answered.
+     */
+    private void serve(InputStream input, OutputStream output) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        PrintWriter writer = new PrintWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+        Phaser queriesOfStream = new Phaser(1);
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.isBlank())
+                continue;
+            String query = line;
+            pendingQueries.acquireUninterruptibly();
+            queriesOfStream.register();
+            workers.execute(() -> {
+                String answer = null;
+                try {
+                    answer = answer(query);
+                } finally {
+                    // the client gets an answer to each query, even if the worker fails
+                    if (answer == null)
+                        answer = errorAnswer(query, "Internal error");
+                    synchronized (writer) {
+                        writer.println(answer);
+                        writer.flush();
+                    }
+                    queriesOfStream.arriveAndDeregister();
+                    pendingQueries.release();
+                }
+            });
+        }
+        queriesOfStream.arriveAndAwaitAdvance();
+    }
+
+    /**
+     * @param query a query in JSON
+     * @return the answer to the query in JSON
+     */
+    String answer(String query) {
+        Map<String, Object> answer = new LinkedHashMap<>();
+        answer.put("id", null);
+        try {
+            Map<String, Object> members = Json.parseObject(query);
+            answer.put("id", members.get("id"));
+            Args arguments = argumentsOf(members);
+            Timer timer = new Timer();
+            timer.start();
+            BuchiAutomaton[] automata = cache == null
+                    ? Runner.readPair(arguments.firstAutomatonPath(), arguments.secondAutomatonPath())
+                    : cache.readPair(arguments.firstAutomatonPath(), arguments.secondAutomatonPath());
+            Preprocessor preprocessor = new Preprocessor(arguments);
+            BuchiAutomaton a = preprocess(preprocessor, automata[0], "A");
+            BuchiAutomaton b = preprocess(preprocessor, automata[1], "B");
+            BAInc inclusionAlgorithm = new BAInc(arguments);
+            boolean included = inclusionAlgorithm.run(a, b);
+            timer.stop();
+            answer.put("included", included);
+            answer.put("run_ms", inclusionAlgorithm.getRuntime());
+            answer.put("total_ms", timer.getMeasuredTime());
+        } catch (NoSuchFileException e) {
+            answer.put("error", "File " + e.getFile() + " does not exist");
+        } catch (IllegalArgumentException | IOException | ParseError | AutomatonBuilder.BuildError e) {
+            answer.put("error", e.getMessage());
+        } catch (RuntimeException e) {
+            answer.put("error", e.toString());
+        }
+        return Json.object(answer);
+    }
+
+    /**
+     * @return an answer with the given error, and with the id of the query if it
+     *         can be read
+     */
+    private static String errorAnswer(String query, String error) {
+        Map<String, Object> answer = new LinkedHashMap<>();
+        answer.put("id", null);
+        try {
+            answer.put("id", Json.parseObject(query).get("id"));
+        } catch (IllegalArgumentException e) {
+            // the id stays null
+        }
+        answer.put("error", error);
+        return Json.object(answer);
+    }
+
+    private BuchiAutomaton preprocess(Preprocessor preprocessor, BuchiAutomaton automaton, String name) {
+        return cache == null ? preprocessor.preprocess(automaton, name)
+                : cache.preprocess(preprocessor, automaton, name);
+    }
+
+    /**
+     * @return the options of the server, with the paths and the options given in
+     *         the query
+     */
+    private Args argumentsOf(Map<String, Object> query) {
+        Args arguments = defaults.copy();
+        arguments.setFirstAutomatonPath(Path.of(stringMember(query, "a", true)));
+        arguments.setSecondAutomatonPath(Path.of(stringMember(query, "b", true)));
+        String engine = stringMember(query, "engine", false);
+        if (engine != null)
+            arguments.setEngine(enumConstant(Args.Engine.class, "engine", engine));
+        String order = stringMember(query, "order", false);
+        if (order != null)
+            arguments.setOrder(enumConstant(Args.Order.class, "order", order));
+        if (query.containsKey("quotient")) {
+            // a null or "none" quotient turns off the one of the server
+            String quotient = stringMember(query, "quotient", false);
+            arguments.setQuotient(quotient == null || quotient.equalsIgnoreCase("none") ? null
+                    : enumConstant(Simulation.Kind.class, "quotient", quotient));
+        }
+        Object trim = query.get("trim");
+        if (trim != null) {
+            if (!(trim instanceof Boolean))
+                throw new IllegalArgumentException("\"trim\" must be true or false");
+            arguments.setTrim((Boolean) trim);
+        }
+        return arguments;
+    }
+
+    private static String stringMember(Map<String, Object> query, String name, boolean required) {
+        Object value = query.get(name);
+        if (value == null && !required)
+            return null;
+        if (!(value instanceof String))
+            throw new IllegalArgumentException("\"" + name + "\" must be a string");
+        return (String) value;
+    }
+
+    private static <E extends Enum<E>> E enumConstant(Class<E> type, String name, String value) {
+        for (E constant : type.getEnumConstants())
+            if (constant.name().equalsIgnoreCase(value))
+                return constant;
+        throw new IllegalArgumentException("Unknown " + name + " \"" + value + "\"");
+    }
+
+}
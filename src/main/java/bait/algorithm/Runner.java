@@ -2,23 +2,27 @@ package bait.algorithm;
 
 import java.io.File;
 import java.io.IOException;
-import java.nio.file.Files;
+import java.nio.file.Path;
 
 import bait.automata.Alphabet;
 import bait.automata.AutomatonParser;
+import bait.automata.AutomatonSource;
+import bait.automata.BinaryAutomatonFormat;
 import bait.automata.BuchiAutomaton;
 import bait.automata.AutomatonParser.ParseError;
+import bait.collections.Interner;
+import bait.preprocessing.Preprocessor;
 import bait.utility.Args;
+import bait.utility.Settings;
 
 public final class Runner {
 
     public boolean inclusionHolds(Args arguments) throws IOException, ParseError {
         assertNeededFilesExist(arguments);
-        String firstAutomatonSource = new String(Files.readAllBytes(arguments.firstAutomatonPath()));
-        String secondAutomatonSource = new String(Files.readAllBytes(arguments.secondAutomatonPath()));
-        Alphabet alphabet = AutomatonParser.parseAlphabet(firstAutomatonSource, secondAutomatonSource);
-        BuchiAutomaton a = AutomatonParser.parse(firstAutomatonSource, alphabet);
-        BuchiAutomaton b = AutomatonParser.parse(secondAutomatonSource, alphabet);
+        BuchiAutomaton[] automata = readPair(arguments.firstAutomatonPath(), arguments.secondAutomatonPath());
+        Preprocessor preprocessor = new Preprocessor(arguments);
+        BuchiAutomaton a = preprocessor.preprocess(automata[0], "A");
+        BuchiAutomaton b = preprocessor.preprocess(automata[1], "B");
         if (arguments.veryVerboseDebug()) {
             System.out.println(a);
             System.out.println(b);
@@ -30,22 +34,54 @@ public final class Runner {
 
         BAInc inclusionAlgorithm = new BAInc(arguments);
         boolean included = inclusionAlgorithm.run(a, b);
+        printPreprocessingReport(preprocessor, arguments);
         printResults(inclusionAlgorithm, included, arguments);
         return included;
     }
 
+    /**
+     * Reads the two automata and builds them over the union of their alphabets.
+     *
+     * @return the first and the second automaton
+     */
+    static BuchiAutomaton[] readPair(Path firstPath, Path secondPath) throws IOException, ParseError {
+        Interner<String> names = new Interner<>();
+        AutomatonSource sourceA = readAutomaton(firstPath, names);
+        AutomatonSource sourceB = readAutomaton(secondPath, names);
+        Alphabet alphabet = Alphabet.merge(sourceA.alphabet(), sourceB.alphabet());
+        return new BuchiAutomaton[] { sourceA.build(alphabet), sourceB.build(alphabet) };
+    }
+
+    /**
+     * Reads the automaton at the given path, in binary format if the path has the
+     * binary extension and in BA format otherwise.
+     */
+    static AutomatonSource readAutomaton(Path path, Interner<String> names) throws IOException, ParseError {
+        if (path.toString().toLowerCase().endsWith(Settings.BINARY_AUTOMATA_FORMAT_SUFFIX))
+            return BinaryAutomatonFormat.load(path);
+        return AutomatonParser.read(path, names);
+    }
+
     private static void assertNeededFilesExist(Args arguments) {
         assertFileExists(arguments.firstAutomatonPath().toFile());
         assertFileExists(arguments.secondAutomatonPath().toFile());
     }
 
-    private static void assertFileExists(File f) {
+    static void assertFileExists(File f) {
         if (!f.exists()) {
             System.err.println("File " + f.toString() + " does not exist");
             System.exit(1);
         }
     }
 
+    private static void printPreprocessingReport(Preprocessor preprocessor, Args arguments) {
+        if (arguments.minimalDebug()) {
+            for (String line : preprocessor.report())
+                System.out.println(line);
+            System.out.println("Time to preprocess the automata(ms): " + preprocessor.getRuntime());
+        }
+    }
+
     private static void printResults(BAInc inclusionAlgorithm, boolean included, Args arguments) {
         if (arguments.minimalDebug()) {
             System.out.println("Number of iterations to compute X: " + inclusionAlgorithm.getXIterations());
@@ -55,6 +91,15 @@ public final class Runner {
                     "Average number of iterations to compute Ys: " + inclusionAlgorithm.getYAverageIterations());
             System.out.println(
                     "Average number of elements in the antichains in the Ys: " + inclusionAlgorithm.getYAverageSize());
+            System.out.println("Comparisons avoided by the antichains: " + inclusionAlgorithm.getAvoidedComparisons());
+            System.out.println("Final states skipped (not on a cycle/empty X): "
+                    + inclusionAlgorithm.getFinalStatesNotOnACycle() + "/" + inclusionAlgorithm.getFinalStatesWithEmptyX());
+            System.out.println("Entries of the Ys outside the cones of influence: " + inclusionAlgorithm.getPrunedYEntries());
+            if (arguments.engine() == Args.Engine.SHARED)
+                System.out.println("Images shared between the Ys: " + inclusionAlgorithm.getSharedYImages());
+            if (arguments.postCacheSize() > 0)
+                System.out.println("Post images cache hits/misses: " + inclusionAlgorithm.getPostCacheHits() + "/"
+                        + inclusionAlgorithm.getPostCacheMisses());
         }
         System.out.println("Inclusion holds: " + included);
         System.out.println("Time to run bait(ms): " + inclusionAlgorithm.getRuntime());
@@ -0,0 +1,246 @@
+package bait.algorithm;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import bait.automata.BuchiAutomaton;
+import bait.automata.State;
+import bait.automata.Symbol;
+import bait.collections.Interner;
+import bait.collections.LruCache;
+import bait.collections.Pair;
+import bait.collections.RelationPair;
+import bait.collections.StateRelation;
+import bait.collections.StateSet;
+import bait.comparator.PartialComparator;
+
+/**
+ * The Y vectors of many final states of a, computed together by one worklist
+ * fixpoint. The final states are the sources of the vector, and the tag of a
+ * source is its position in the list of sources. Each state of a has one
+ * antichain per tag, and its inner frontier maps each element that was added
+ * and not yet propagated to the tags that added it. So the image of an element
+ * through a transition is computed once, and then added to the antichains of
+ * the successor for all its tags.
+ *
+ * The antichain of a source for its own tag is the same that the worklist
+ * engine computes for the {@link YVector} of the source, restricted to the
+ * cone of influence of the source.
+ */
+public final class SharedYVector {
+
+    private final BuchiAutomaton a;
+    private final List<State> sources;
+    private final Map<Symbol, StateRelation> ctxB;
+    private final Map<Symbol, StateRelation> ctxFB;
+    // antichains.get(s).get(tag) is the antichain of the state with index s for the
+    // given tag, and it is null if the state is not in the cone of the tag
+    private final List<List<Antichain<RelationPair>>> antichains;
+    private final List<Map<RelationPair, BitSet>> innerFrontiers;
+    private final Set<State> initiallyChangedEntries;
+    private LruCache<Pair<RelationPair, Symbol>, RelationPair> postCache;
+    private Interner<RelationPair> interner;
+    private int iterations = 0;
+    private long sharedImages = 0;
+
+    /**
+     * @param sources the final states of a whose Y vectors are computed
+     * @param cones   the cone of influence of each source, in the same order
+     * @return the initial vector, where the antichain of each successor of each
+     *         source in its cone holds the contexts of b, tagged with the source
+     */
+    public static SharedYVector initialY(BuchiAutomaton a, List<State> sources, List<StateSet> cones,
+            PartialComparator<RelationPair> comparator, Map<Symbol, StateRelation> ctxB,
+            Map<Symbol, StateRelation> ctxFB) {
+        SharedYVector newVector = new SharedYVector(a, sources, cones, comparator, ctxB, ctxFB);
+        for (int tag = 0; tag < sources.size(); tag++) {
+            int source = sources.get(tag).getIntIndex();
+            for (Symbol symbol : a.alphabet()) {
+                RelationPair contexts = RelationPair.of(ctxB.get(symbol), ctxFB.get(symbol));
+                int end = a.successorsEnd(source, symbol.id());
+                for (int i = a.successorsBegin(source, symbol.id()); i < end; i++)
+                    if (newVector.add(a.successor(i), tag, contexts))
+                        newVector.initiallyChangedEntries.add(a.state(a.successor(i)));
+            }
+        }
+        return newVector;
+    }
+
+    private SharedYVector(BuchiAutomaton a, List<State> sources, List<StateSet> cones,
+            PartialComparator<RelationPair> comparator, Map<Symbol, StateRelation> ctxB,
+            Map<Symbol, StateRelation> ctxFB) {
+        this.a = a;
+        this.sources = sources;
+        this.ctxB = ctxB;
+        this.ctxFB = ctxFB;
+        this.antichains = new ArrayList<>(a.numberOfStates());
+        this.innerFrontiers = new ArrayList<>(a.numberOfStates());
+        this.initiallyChangedEntries = new HashSet<>();
+        for (int s = 0; s < a.numberOfStates(); s++) {
+            List<Antichain<RelationPair>> antichainsOfState = new ArrayList<>(sources.size());
+            for (int tag = 0; tag < sources.size(); tag++)
+                antichainsOfState.add(cones.get(tag).contains(s) ? new Antichain<>(comparator) : null);
+            antichains.add(antichainsOfState);
+            innerFrontiers.add(new LinkedHashMap<>());
+        }
+    }
+
+    /**
+     * @param postCache the cache of the images of the elements, or null to disable
+     *                  caching. It can be shared with the Y vectors
+     */
+    public void setPostCache(LruCache<Pair<RelationPair, Symbol>, RelationPair> postCache) {
+        this.postCache = postCache;
+    }
+
+    /**
+     * @param interner the interner of the images of the elements, or null to
+     *                 disable interning
+     */
+    public void setInterner(Interner<RelationPair> interner) {
+        this.interner = interner;
+    }
+
+    public List<State> sources() {
+        return sources;
+    }
+
+    /**
+     * @param tag the position of a source
+     * @return the entry of the source in its own Y vector
+     */
+    public Set<RelationPair> entryOfSource(int tag) {
+        return antichains.get(sources.get(tag).getIntIndex()).get(tag).elements();
+    }
+
+    public Set<State> initiallyChangedEntries() {
+        return initiallyChangedEntries;
+    }
+
+    /**
+     * Propagates the inner frontier of the entry of a state to the entries of its
+     * successors, as {@link BAIncVector#propagateInnerFrontier} does, computing
+     * the image of each element once for all the tags that are still pending for
+     * it.
+     *
+     * @param state the state whose inner frontier is propagated
+     * @return the successors whose entries changed
+     */
+    public Set<State> propagateInnerFrontier(State state) {
+        int index = state.getIntIndex();
+        Map<RelationPair, BitSet> frontier = innerFrontiers.set(index, new LinkedHashMap<>());
+        List<Antichain<RelationPair>> antichainsOfState = antichains.get(index);
+        Set<State> changedEntries = new HashSet<>();
+        for (Map.Entry<RelationPair, BitSet> pending : frontier.entrySet()) {
+            RelationPair element = pending.getKey();
+            BitSet tags = pending.getValue();
+            // the tags whose antichain removed the element are not propagated, since a
+            // lesser element was added and is in the frontier as well
+            for (int tag = tags.nextSetBit(0); tag >= 0; tag = tags.nextSetBit(tag + 1))
+                if (!antichainsOfState.get(tag).elements().contains(element))
+                    tags.clear(tag);
+            if (tags.isEmpty())
+                continue;
+            for (Symbol symbol : a.alphabet()) {
+                int end = a.successorsEnd(index, symbol.id());
+                for (int i = a.successorsBegin(index, symbol.id()); i < end; i++) {
+                    int successor = a.successor(i);
+                    RelationPair image = null;
+                    int tagsUsingImage = 0;
+                    for (int tag = tags.nextSetBit(0); tag >= 0; tag = tags.nextSetBit(tag + 1)) {
+                        if (antichains.get(successor).get(tag) == null)
+                            continue;
+                        if (image == null)
+                            image = image(element, symbol);
+                        tagsUsingImage++;
+                        if (add(successor, tag, image))
+                            changedEntries.add(a.state(successor));
+                    }
+                    if (tagsUsingImage > 1)
+                        sharedImages += tagsUsingImage - 1;
+                }
+            }
+        }
+        iterations++;
+        return changedEntries;
+    }
+
+    /**
+     * @return true iff the element is added to the antichain of the state for the
+     *         tag, in which case it is also added to its inner frontier
+     */
+    private boolean add(int state, int tag, RelationPair element) {
+        Antichain<RelationPair> antichain = antichains.get(state).get(tag);
+        if (antichain == null || !antichain.glbWith(element))
+            return false;
+        innerFrontiers.get(state).computeIfAbsent(element, e -> new BitSet(sources.size())).set(tag);
+        return true;
+    }
+
+    private RelationPair image(RelationPair element, Symbol symbol) {
+        if (postCache == null)
+            return internedImage(element, symbol);
+        return postCache.computeIfAbsent(Pair.of(element, symbol), key -> internedImage(key.fst(), key.snd()));
+    }
+
+    private RelationPair internedImage(RelationPair element, Symbol symbol) {
+        RelationPair image = YVectorEntry.post(element, ctxB.get(symbol), ctxFB.get(symbol));
+        return interner == null ? image : interner.intern(image);
+    }
+
+    /**
+     * @return the number of entries that have been propagated
+     */
+    public int iterations() {
+        return iterations;
+    }
+
+    /**
+     * @return the number of times an image was added for a tag without being
+     *         computed again, because it had already been computed for another
+     *         tag of the same element
+     */
+    public long sharedImages() {
+        return sharedImages;
+    }
+
+    /**
+     * @return the total number of elements in the antichains of all the tags
+     */
+    public long totNumberOfElementsInEntries() {
+        long sum = 0;
+        for (List<Antichain<RelationPair>> antichainsOfState : antichains)
+            for (Antichain<RelationPair> antichain : antichainsOfState)
+                if (antichain != null)
+                    sum += antichain.size();
+        return sum;
+    }
+
+    /**
+     * @return the number of pairs of a state and a tag without an antichain,
+     *         because the state is outside of the cone of the tag
+     */
+    public long numberOfPrunedEntries() {
+        long pruned = 0;
+        for (List<Antichain<RelationPair>> antichainsOfState : antichains)
+            for (Antichain<RelationPair> antichain : antichainsOfState)
+                if (antichain == null)
+                    pruned++;
+        return pruned;
+    }
+
+    public long avoidedComparisons() {
+        long sum = 0;
+        for (List<Antichain<RelationPair>> antichainsOfState : antichains)
+            for (Antichain<RelationPair> antichain : antichainsOfState)
+                if (antichain != null)
+                    sum += antichain.avoidedComparisons();
+        return sum;
+    }
+
+}
@@ -6,9 +6,10 @@ import java.util.Set;
 
 import bait.automata.BuchiAutomaton;
 import bait.automata.State;
+import bait.collections.StateSet;
 import bait.comparator.PartialComparator;
 
-public final class XVector extends BAIncVector<Set<State>> {
+public final class XVector extends BAIncVector<StateSet> {
 
     /**
      * Returns the vector of sets of sets of states which in the index of the
@@ -20,11 +21,10 @@ public final class XVector extends BAIncVector<Set<State>> {
      * @param comparator the comparator used to compute the minor for the elements
      * @return initial X vector of the algorithm BAInc based on automata a and b
      */
-    public static XVector initialX(BuchiAutomaton a, BuchiAutomaton b, PartialComparator<Set<State>> comparator) {
+    public static XVector initialX(BuchiAutomaton a, BuchiAutomaton b, PartialComparator<StateSet> comparator) {
         XVector newVector = new XVector(a, b, comparator);
-        Set<Set<State>> initialAStateEntry = newVector.get(a.initialState());
-        Set<State> singletonInitialBState = new HashSet<>(Collections.singletonList(b.initialState()));
-        initialAStateEntry.add(singletonInitialBState);
+        var initialAStateEntry = newVector.vector.get(a.initialState().getIntIndex());
+        initialAStateEntry.glbWith(StateSet.singleton(b.initialState().getIntIndex()));
         for (var initiallyChangedState : newVector.initiallyChangedEntries()) {
             var entry = newVector.vector.get(initiallyChangedState.getIntIndex());
             entry.setCurrentAntichainAsInnerFrontier();
@@ -32,10 +32,11 @@ public final class XVector extends BAIncVector<Set<State>> {
         return newVector;
     }
 
-    private XVector(BuchiAutomaton a, BuchiAutomaton b, PartialComparator<Set<State>> comparator) {
+    private XVector(BuchiAutomaton a, BuchiAutomaton b, PartialComparator<StateSet> comparator) {
         super(a, b);
-        for (State state : a.states())
-            vector.add(new XVectorEntry(state, comparator));
+        // the entries are stored in the order of the indices of their states
+        for (int index = 0; index < a.numberOfStates(); index++)
+            vector.add(new XVectorEntry(a.state(index), b, comparator));
     }
 
     /**
@@ -50,9 +51,9 @@ public final class XVector extends BAIncVector<Set<State>> {
     }
 
     @Override
-    public Set<Set<State>> getInitialValue(State index) {
+    public Set<StateSet> getInitialValue(State index) {
         if (index.equals(a.initialState())) {
-            Set<State> singletonInitialBState = new HashSet<>(Collections.singletonList(b.initialState()));
+            StateSet singletonInitialBState = StateSet.singleton(b.initialState().getIntIndex());
             return new HashSet<>(Collections.singletonList(singletonInitialBState));
         } else
             return null;
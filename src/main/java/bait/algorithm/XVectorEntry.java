@@ -1,16 +1,20 @@
 package bait.algorithm;
 
+import bait.automata.BuchiAutomaton;
 import bait.automata.State;
 import bait.automata.Symbol;
+import bait.collections.StateSet;
 import bait.comparator.PartialComparator;
 
-import java.util.Set;
 import java.util.stream.Collectors;
 
-public final class XVectorEntry extends BAIncVectorEntry<Set<State>> {
+public final class XVectorEntry extends BAIncVectorEntry<StateSet> {
 
-    public XVectorEntry(State index, PartialComparator<Set<State>> comparator) {
+    private final BuchiAutomaton b;
+
+    public XVectorEntry(State index, BuchiAutomaton b, PartialComparator<StateSet> comparator) {
         super(index, comparator);
+        this.b = b;
     }
 
     @Override
@@ -23,7 +27,7 @@ public final class XVectorEntry extends BAIncVectorEntry<Set<State>> {
     }
 
     @Override
-    protected Set<State> getNewElement(Set<State> predecessorElementInPre, Symbol predecessorSymbol) {
-        return State.post(predecessorElementInPre, predecessorSymbol);
+    protected StateSet getNewElement(StateSet predecessorElementInPre, Symbol predecessorSymbol) {
+        return b.post(predecessorElementInPre, predecessorSymbol);
     }
 }
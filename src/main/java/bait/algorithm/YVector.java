@@ -9,26 +9,43 @@ import bait.automata.BuchiAutomaton;
 import bait.automata.State;
 import bait.automata.Symbol;
 import bait.comparator.PartialComparator;
-import bait.collections.Pair;
+import bait.collections.RelationPair;
+import bait.collections.StateRelation;
+import bait.collections.StateSet;
 
-public final class YVector extends BAIncVector<Pair<Map<State, Set<State>>, Map<State, Set<State>>>> {
+public final class YVector extends BAIncVector<RelationPair> {
 
     private Set<State> initiallyChangedEntries;
-    private final Map<State, Set<Pair<Map<State, Set<State>>, Map<State, Set<State>>>>> initialEntries;
+    private final Map<State, Set<RelationPair>> initialEntries;
 
+    /**
+     * Returns the initial Y vector of the final state, restricted to the cone of
+     * influence of the final state. Only the entry of the final state is read when
+     * the vector is checked, and the entries that can contribute to it are the
+     * ones of the states that lie on a cycle through the final state, that is,
+     * the states of its strongly connected component. The entries of the other
+     * states are not created, and nothing is propagated to them.
+     *
+     * @param cone the states of the strongly connected component of the final
+     *             state, or null to compute the whole vector
+     * @return initial Y vector of the algorithm BAInc relative to the final state
+     */
     public static YVector initialY(BuchiAutomaton a, BuchiAutomaton b, State finalState,
-            PartialComparator<Pair<Map<State, Set<State>>, Map<State, Set<State>>>> comparator,
-            Map<Symbol, Map<State, Set<State>>> ctxB, Map<Symbol, Map<State, Set<State>>> ctxFB) {
-        YVector newVector = new YVector(a, b, comparator);
-        newVector.initiallyChangedEntries = finalState.post();
-        for (Map.Entry<Symbol, Set<State>> successorsEntry : finalState.successors().entrySet()) {
-            Symbol symbol = successorsEntry.getKey();
-            Set<State> successorsFollowingSymbol = successorsEntry.getValue();
-            for (State successor : successorsFollowingSymbol) {
+            PartialComparator<RelationPair> comparator, Map<Symbol, StateRelation> ctxB,
+            Map<Symbol, StateRelation> ctxFB, StateSet cone) {
+        YVector newVector = new YVector(a, b, comparator, ctxB, ctxFB, cone);
+        int finalStateIndex = finalState.getIntIndex();
+        for (Symbol symbol : a.alphabet()) {
+            int end = a.successorsEnd(finalStateIndex, symbol.id());
+            for (int i = a.successorsBegin(finalStateIndex, symbol.id()); i < end; i++) {
+                if (!newVector.inDomain(a.successor(i)))
+                    continue;
+                State successor = a.state(a.successor(i));
+                newVector.initiallyChangedEntries.add(successor);
                 YVectorEntry entry = (YVectorEntry) newVector.vector.get(successor.getIntIndex());
-                Map<State, Set<State>> fst = ctxB.get(symbol);
-                Map<State, Set<State>> snd = ctxFB.get(symbol);
-                Pair<Map<State, Set<State>>, Map<State, Set<State>>> newValue = Pair.of(fst, snd);
+                StateRelation fst = ctxB.get(symbol);
+                StateRelation snd = ctxFB.get(symbol);
+                RelationPair newValue = RelationPair.of(fst, snd);
                 entry.glbWith(newValue);
                 newVector.initialEntries.put(successor, entry.getAntichain());
             }
@@ -41,17 +58,19 @@ public final class YVector extends BAIncVector<Pair<Map<State, Set<State>>, Map<
         return newVector;
     }
 
-    private YVector(BuchiAutomaton a, BuchiAutomaton b,
-            PartialComparator<Pair<Map<State, Set<State>>, Map<State, Set<State>>>> comparator) {
+    private YVector(BuchiAutomaton a, BuchiAutomaton b, PartialComparator<RelationPair> comparator,
+            Map<Symbol, StateRelation> ctxB, Map<Symbol, StateRelation> ctxFB, StateSet cone) {
         super(a, b);
         this.initiallyChangedEntries = new HashSet<>();
         this.initialEntries = new HashMap<>();
-        for (State state : a.states())
-            vector.add(new YVectorEntry(state, comparator));
+        this.domain = cone;
+        // the entries are stored in the order of the indices of their states
+        for (int index = 0; index < a.numberOfStates(); index++)
+            vector.add(inDomain(index) ? new YVectorEntry(a.state(index), comparator, ctxB, ctxFB) : null);
     }
 
     @Override
-    public Set<Pair<Map<State, Set<State>>, Map<State, Set<State>>>> getInitialValue(State index) {
+    public Set<RelationPair> getInitialValue(State index) {
         return initialEntries.get(index);
     }
 
@@ -1,15 +1,34 @@
 package bait.automata;
 
-import java.util.HashSet;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.Iterator;
+import java.util.Map;
 import java.util.Set;
+import java.util.TreeSet;
 
+/**
+ * Ordered set of interned symbols. Each symbol of the alphabet has as id its
+ * position in the alphabet, so automata built with the same alphabet can index
+ * their transitions by symbol id.
+ */
 public final class Alphabet implements Iterable<Symbol> {
 
-    private final Set<Symbol> symbolsSet;
+    private final Symbol[] symbols;
+    private final Map<String, Symbol> symbolsByName;
 
-    public Alphabet(Set<Symbol> symbols) {
-        this.symbolsSet = new HashSet<>(symbols);
+    private Alphabet(Set<String> symbolsNames) {
+        // sorting makes the ids independent from the order in which the symbols are
+        // found in the input
+        TreeSet<String> sortedNames = new TreeSet<>(symbolsNames);
+        symbols = new Symbol[sortedNames.size()];
+        symbolsByName = new HashMap<>();
+        int id = 0;
+        for (String name : sortedNames) {
+            symbols[id] = new Symbol(name, id);
+            symbolsByName.put(name, symbols[id]);
+            id++;
+        }
     }
 
     /**
@@ -19,10 +38,7 @@ public final class Alphabet implements Iterable<Symbol> {
      * @return the corresponding alphabet
      */
     public static Alphabet of(Set<String> symbols) {
-        Set<Symbol> symbolsSet = new HashSet<>();
-        for (String s : symbols)
-            symbolsSet.add(new Symbol(s));
-        return new Alphabet(symbolsSet);
+        return new Alphabet(symbols);
     }
 
     /**
@@ -33,15 +49,62 @@ public final class Alphabet implements Iterable<Symbol> {
      * @return the merge of the two
      */
     public static Alphabet merge(Alphabet a1, Alphabet a2) {
-        Set<Symbol> symbols = new HashSet<>();
-        symbols.addAll(a1.symbolsSet);
-        symbols.addAll(a2.symbolsSet);
+        Set<String> symbols = new TreeSet<>();
+        symbols.addAll(a1.symbolsByName.keySet());
+        symbols.addAll(a2.symbolsByName.keySet());
         return new Alphabet(symbols);
     }
 
+    public int size() {
+        return symbols.length;
+    }
+
+    /**
+     * @param id the id of the symbol
+     * @return the symbol of this alphabet with the given id
+     */
+    public Symbol symbol(int id) {
+        return symbols[id];
+    }
+
+    /**
+     * @param name the string representation of the symbol
+     * @return the symbol of this alphabet with the given representation, or null
+     *         if there is no such symbol
+     */
+    public Symbol symbol(String name) {
+        return symbolsByName.get(name);
+    }
+
+    /**
+     * @param other another alphabet
+     * @return true iff each symbol of the other alphabet is also in this one
+     */
+    public boolean containsAll(Alphabet other) {
+        return symbolsByName.keySet().containsAll(other.symbolsByName.keySet());
+    }
+
     @Override
     public Iterator<Symbol> iterator() {
-        return symbolsSet.iterator();
+        return Arrays.asList(symbols).iterator();
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(symbols);
+    }
+
+    /**
+     * Two alphabets are equal iff they have the same symbols, which then have the
+     * same ids in both.
+     */
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj)
+            return true;
+        if (obj == null || getClass() != obj.getClass())
+            return false;
+        return Arrays.equals(symbols, ((Alphabet) obj).symbols);
     }
 
 }
@@ -1,9 +1,14 @@
 package bait.automata;
 
-import java.util.HashMap;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.IntFunction;
+
+import bait.collections.StateSet;
 
 public final class AutomatonBuilder {
 
@@ -23,14 +28,12 @@ public final class AutomatonBuilder {
     private State initialState;
     private final Set<State> finalStates;
     private final Set<State> states;
-    private final Set<Edge<State, Symbol>> edges;
     private Alphabet alphabet;
 
     public AutomatonBuilder() {
         states = new HashSet<>();
         finalStates = new HashSet<>();
-        edges = new HashSet<>();
-        statesMap = new HashMap<>();
+        statesMap = new LinkedHashMap<>();
     }
 
     /**
@@ -75,11 +78,8 @@ public final class AutomatonBuilder {
      */
     public BuchiAutomaton build() throws BuildError {
         checkIfSpecifiedAllComponents();
-        buildStatesAndEdgesSetsFromStringRepresentation();
-        BuchiAutomaton ba = buildAutomatonWithStatesAndEdges();
-        enumerateStates(ba);
-        setAlphabet(ba);
-        return ba;
+        buildStatesSetsFromStringRepresentation();
+        return buildAutomatonWithStatesAndEdges();
     }
 
     private void checkIfSpecifiedAllComponents() throws BuildError {
@@ -93,9 +93,8 @@ public final class AutomatonBuilder {
             throw new BuildError("Alphabet not specified");
     }
 
-    private void buildStatesAndEdgesSetsFromStringRepresentation() {
+    private void buildStatesSetsFromStringRepresentation() {
         insertStates();
-        buildEdgesFromStringRepresentation();
         buildStatesFromStringRepresentation();
         markFinalStates();
     }
@@ -122,16 +121,6 @@ public final class AutomatonBuilder {
         }
     }
 
-    private void buildEdgesFromStringRepresentation() {
-        for (Edge<String, String> e : edgesString) {
-            State from = statesMap.get(e.from);
-            State to = statesMap.get(e.to);
-            Symbol symbol = new Symbol(e.label);
-            Edge<State, Symbol> newEdge = new Edge<>(from, to, symbol);
-            edges.add(newEdge);
-        }
-    }
-
     private void buildStatesFromStringRepresentation() {
         initialState = statesMap.get(initialStateString);
         for (String finalStateString : finalStatesString)
@@ -140,40 +129,203 @@ public final class AutomatonBuilder {
     }
 
     private void markFinalStates() {
-        for (State s : this.states) {
-            if (this.finalStates.contains(s))
-                s.setIsFinal(true);
-        }
+        for (State s : this.finalStates)
+            s.setIsFinal(true);
     }
 
-    private BuchiAutomaton buildAutomatonWithStatesAndEdges() {
+    private BuchiAutomaton buildAutomatonWithStatesAndEdges() throws BuildError {
         BuchiAutomaton ba = new BuchiAutomaton();
         setAutomatonStates(ba);
+        setAlphabet(ba);
+        enumerateStates(ba);
         setAutomatonEdges(ba);
         return ba;
     }
 
     private void setAutomatonStates(BuchiAutomaton ba) {
-        ba.states = this.states;
+        ba.states = Collections.unmodifiableSet(this.states);
         ba.initialState = this.initialState;
-        ba.finalStates = this.finalStates;
+        ba.finalStates = Collections.unmodifiableSet(this.finalStates);
+    }
+
+    /**
+     * Numbers the states in the order in which they were first met, so that the
+     * indices do not depend on the hash codes of the identifiers.
+     */
+    private void enumerateStates(BuchiAutomaton ba) {
+        ba.indexedStates = new State[statesMap.size()];
+        ba.numberOfStates = statesMap.size();
+        StateSet.Builder finalStatesSet = new StateSet.Builder();
+        int index = 0;
+        for (State state : statesMap.values()) {
+            ba.indexedStates[index] = state;
+            state.setIndex(index);
+            state.setAutomaton(ba);
+            if (state.isFinal())
+                finalStatesSet.add(index);
+            index++;
+        }
+        ba.finalStatesSet = finalStatesSet.build();
+    }
+
+    /**
+     * Stores the edges in compressed sparse row format. One pass over the edges
+     * resolves their states and symbols to indices and counts the edges of each
+     * (state, symbol) pair, then the edges are placed with a counting sort.
+     */
+    private void setAutomatonEdges(BuchiAutomaton ba) throws BuildError {
+        int numberOfSymbols = alphabet.size();
+        int numberOfRows = ba.indexedStates.length * numberOfSymbols;
+        int numberOfEdges = edgesString.size();
+        int[] from = new int[numberOfEdges];
+        int[] to = new int[numberOfEdges];
+        int[] fromRows = new int[numberOfEdges];
+        int[] toRows = new int[numberOfEdges];
+        int[] successorsOffsets = new int[numberOfRows + 1];
+        int[] predecessorsOffsets = new int[numberOfRows + 1];
+        int edgeIndex = 0;
+        for (Edge<String, String> e : edgesString) {
+            Symbol symbol = alphabet.symbol(e.label);
+            if (symbol == null)
+                throw new BuildError("Symbol " + e.label + " is not in the alphabet");
+            from[edgeIndex] = statesMap.get(e.from).getIntIndex();
+            to[edgeIndex] = statesMap.get(e.to).getIntIndex();
+            fromRows[edgeIndex] = row(from[edgeIndex], symbol, numberOfSymbols);
+            toRows[edgeIndex] = row(to[edgeIndex], symbol, numberOfSymbols);
+            successorsOffsets[fromRows[edgeIndex] + 1]++;
+            predecessorsOffsets[toRows[edgeIndex] + 1]++;
+            edgeIndex++;
+        }
+        for (int i = 0; i < numberOfRows; i++) {
+            successorsOffsets[i + 1] += successorsOffsets[i];
+            predecessorsOffsets[i + 1] += predecessorsOffsets[i];
+        }
+        int[] successors = new int[numberOfEdges];
+        int[] predecessors = new int[numberOfEdges];
+        int[] successorsFilled = new int[numberOfRows];
+        int[] predecessorsFilled = new int[numberOfRows];
+        for (int i = 0; i < numberOfEdges; i++) {
+            successors[successorsOffsets[fromRows[i]] + successorsFilled[fromRows[i]]++] = to[i];
+            predecessors[predecessorsOffsets[toRows[i]] + predecessorsFilled[toRows[i]]++] = from[i];
+        }
+        ba.numberOfSymbols = numberOfSymbols;
+        ba.successorsOffsets = successorsOffsets;
+        ba.successors = successors;
+        ba.predecessorsOffsets = predecessorsOffsets;
+        ba.predecessors = predecessors;
+    }
+
+    private static int row(int state, Symbol symbol, int numberOfSymbols) {
+        return state * numberOfSymbols + symbol.id();
+    }
+
+    /**
+     * Builds the image of an automaton through a map of its states: the state s
+     * of the source becomes the state mapping[s] of the image, or is removed if
+     * mapping[s] is negative. The images must be numbered from 0 without gaps,
+     * and each of them takes the identifier of the first state mapped to it. The
+     * image has the transition p'-a->q' iff the source has one transition p-a->q
+     * with p and q mapped to p' and q', and the state p' is final iff some state
+     * mapped to it is final. The initial state must not be removed.
+     *
+     * @param source  the source automaton
+     * @param mapping for each state of the source, the index of its image
+     * @return the image, over the same alphabet as the source
+     */
+    public static BuchiAutomaton image(BuchiAutomaton source, int[] mapping) {
+        int numberOfImages = 0;
+        for (int image : mapping)
+            numberOfImages = Math.max(numberOfImages, image + 1);
+        BuchiAutomaton ba = new BuchiAutomaton();
+        ba.setAlphabet(source.alphabet());
+        ba.numberOfSymbols = source.numberOfSymbols;
+        ba.numberOfStates = numberOfImages;
+        int[] firstSource = new int[numberOfImages];
+        Arrays.fill(firstSource, -1);
+        StateSet.Builder finalStatesSet = new StateSet.Builder();
+        for (int s = 0; s < mapping.length; s++) {
+            int image = mapping[s];
+            if (image < 0)
+                continue;
+            if (firstSource[image] < 0)
+                firstSource[image] = s;
+            if (source.isFinal(s))
+                finalStatesSet.add(image);
+        }
+        ba.finalStatesSet = finalStatesSet.build();
+        // the states of the image are created on demand, as the ones of the
+        // source may be, and the source itself is not kept
+        IntFunction<String> identifiers = source.identifiers();
+        ba.lazyStates = new LazyStates(ba, image -> identifiers.apply(firstSource[image]));
+        ba.initialState = ba.lazyStates.get(mapping[source.initialState().getIntIndex()]);
+        setImageEdges(ba, source, mapping);
+        return ba;
     }
 
-    private void setAutomatonEdges(BuchiAutomaton ba) {
-        for (State s : ba.states()) {
-            for (Edge<State, Symbol> edge : this.edges) {
-                if (s.equals(edge.from))
-                    s.addSuccessor(edge.to, edge.label);
-                if (s.equals(edge.to))
-                    s.addPredecessor(edge.from, edge.label);
+    /**
+     * Each edge of the image is encoded in a long as its row in the high bits and
+     * its target in the low bits, so that sorting the codes orders the edges as
+     * in the compressed sparse row format and puts duplicates next to each other.
+     */
+    private static void setImageEdges(BuchiAutomaton ba, BuchiAutomaton source, int[] mapping) {
+        int numberOfSymbols = ba.numberOfSymbols;
+        long[] forward = new long[source.successors.length];
+        long[] backward = new long[source.successors.length];
+        int numberOfEdges = 0;
+        for (int s = 0; s < mapping.length; s++) {
+            if (mapping[s] < 0)
+                continue;
+            for (int a = 0; a < numberOfSymbols; a++) {
+                int end = source.successorsEnd(s, a);
+                for (int i = source.successorsBegin(s, a); i < end; i++) {
+                    int t = mapping[source.successor(i)];
+                    if (t < 0)
+                        continue;
+                    forward[numberOfEdges] = edgeCode(mapping[s] * numberOfSymbols + a, t);
+                    backward[numberOfEdges] = edgeCode(t * numberOfSymbols + a, mapping[s]);
+                    numberOfEdges++;
+                }
             }
         }
+        setEdges(ba, forward, backward, numberOfEdges);
     }
 
-    private void enumerateStates(BuchiAutomaton ba) {
-        int index = 0;
-        for (State state : ba.states())
-            state.setIndex(index++);
+    /**
+     * Stores the encoded edges in compressed sparse row format, without the
+     * duplicates. The number of states and of symbols of the automaton must be
+     * already set. The arrays of codes are sorted in place.
+     *
+     * @param forward       for each edge p-a->q, the code of the row of (p, a) and
+     *                      of the target q
+     * @param backward      for each edge p-a->q, the code of the row of (q, a) and
+     *                      of the target p
+     * @param numberOfEdges the number of codes in the arrays
+     */
+    static void setEdges(BuchiAutomaton ba, long[] forward, long[] backward, int numberOfEdges) {
+        int numberOfRows = ba.numberOfStates * ba.numberOfSymbols;
+        ba.successorsOffsets = new int[numberOfRows + 1];
+        ba.successors = sortedTargets(forward, numberOfEdges, ba.successorsOffsets);
+        ba.predecessorsOffsets = new int[numberOfRows + 1];
+        ba.predecessors = sortedTargets(backward, numberOfEdges, ba.predecessorsOffsets);
+    }
+
+    static long edgeCode(int row, int target) {
+        return ((long) row << Integer.SIZE) | target;
+    }
+
+    private static int[] sortedTargets(long[] codes, int numberOfCodes, int[] offsets) {
+        Arrays.sort(codes, 0, numberOfCodes);
+        int[] targets = new int[numberOfCodes];
+        int numberOfTargets = 0;
+        for (int i = 0; i < numberOfCodes; i++) {
+            if (i > 0 && codes[i] == codes[i - 1])
+                continue;
+            offsets[(int) (codes[i] >>> Integer.SIZE) + 1]++;
+            targets[numberOfTargets++] = (int) codes[i];
+        }
+        for (int row = 0; row + 1 < offsets.length; row++)
+            offsets[row + 1] += offsets[row];
+        return Arrays.copyOf(targets, numberOfTargets);
     }
 
     private void setAlphabet(BuchiAutomaton ba) {
@@ -1,13 +1,29 @@
 package bait.automata;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.HashSet;
-import java.util.LinkedList;
-import java.util.Set;
-import java.util.function.Function;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+import bait.collections.Interner;
+import bait.collections.StateSet;
 
 public final class AutomatonParser {
 
+    private static final int BUFFER_SIZE = 1 << 16;
+
     public static class ParseError extends Error {
         private static final long serialVersionUID = 1L;
 
@@ -23,19 +39,7 @@ public final class AutomatonParser {
     }
 
     public static Alphabet parseAlphabet(String source) {
-        Set<String> symbols = extractAlphabet(source);
-        return Alphabet.of(symbols);
-    }
-
-    private static Set<String> extractAlphabet(String source) {
-        Set<String> alphabet = new HashSet<>();
-        String[] lines = source.split("\n");
-        for (String line : lines) {
-            Edge<String, String> parsedEdge = parseEdgeLine(line);
-            if (parsedEdge != null)
-                alphabet.add(parsedEdge.label);
-        }
-        return alphabet;
+        return read(source).alphabet();
     }
 
     /*
@@ -44,79 +48,177 @@ public final class AutomatonParser {
      */
     public static BuchiAutomaton parse(String source, Alphabet alphabet)
             throws ParseError, AutomatonBuilder.BuildError {
-        LinkedList<String> lines = new LinkedList<>(Arrays.asList(source.split("\n")));
-
-        String initialState = parseInitialState(lines);
-        Set<Edge<String, String>> edges = parseLines(lines, AutomatonParser::parseEdgeLine);
-        Set<String> finalStates;
-        if (lines.isEmpty())
-            finalStates = allStates(initialState, edges);
-        else
-            finalStates = parseLines(lines, AutomatonParser::parseStateOrSymbol);
+        return read(source).build(alphabet);
+    }
 
-        checkInputEnded(lines);
+    private static ParsedAutomaton read(String source) throws ParseError {
+        try {
+            return read(new StringReader(source), new Interner<>());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // a StringReader does not fail
+        }
+    }
 
-        return buildAutomaton(initialState, edges, finalStates, alphabet);
+    /**
+     * Reads the file in BA format at the given path, which may be compressed with
+     * gzip. The file is read line by line, and the edges are kept as ints: the
+     * memory grows with the number of edge lines and of distinct names, not with
+     * the size of the file.
+     *
+     * @param path  path to the file
+     * @param names interner for the identifiers of the states and the labels,
+     *              which can be shared between the automata of one run
+     * @return the components of the automaton
+     */
+    public static ParsedAutomaton read(Path path, Interner<String> names) throws IOException, ParseError {
+        try (InputStream input = Files.newInputStream(path)) {
+            return read(input, names);
+        }
     }
 
-    private static BuchiAutomaton buildAutomaton(String initialState, Set<Edge<String, String>> edges,
-            Set<String> finalStates, Alphabet alphabet) throws AutomatonBuilder.BuildError {
+    /**
+     * Reads one automaton in BA format from the stream, which may be compressed
+     * with gzip. The stream is not closed.
+     *
+     * @param input the stream
+     * @param names interner for the identifiers of the states and the labels
+     * @return the components of the automaton
+     */
+    public static ParsedAutomaton read(InputStream input, Interner<String> names) throws IOException, ParseError {
+        InputStream buffered = new BufferedInputStream(input, BUFFER_SIZE);
+        if (isGzipped(buffered))
+            buffered = new GZIPInputStream(buffered, BUFFER_SIZE);
+        return read(new InputStreamReader(buffered), names);
+    }
 
-        AutomatonBuilder builder = new AutomatonBuilder();
-        builder.withInitialState(initialState);
-        builder.withEdges(edges);
-        builder.withFinalStates(finalStates);
-        builder.withAlphabet(alphabet);
-        return builder.build();
+    private static boolean isGzipped(InputStream input) throws IOException {
+        input.mark(2);
+        int first = input.read();
+        int second = input.read();
+        input.reset();
+        return first == (GZIPInputStream.GZIP_MAGIC & 0xff) && second == (GZIPInputStream.GZIP_MAGIC >>> 8);
     }
 
-    private static String parseInitialState(LinkedList<String> lines) throws ParseError {
-        if (lines.isEmpty())
-            return null;
-        return parseInitialStateFromLine(lines.peek(), lines);
-    }
-
-    private static String parseInitialStateFromLine(String line, LinkedList<String> lines) {
-        String initialStateFromEdge = parseInitialStateFromEdge(line);
-        if (initialStateFromEdge != null)
-            // we don't pop lines because the first edges is needed to parse edges
-            return initialStateFromEdge;
-        String initialState = parseStateOrSymbol(line);
-        if (initialState != null)
-            lines.pop();
-        return initialState;
-    }
-
-    private static String parseInitialStateFromEdge(String line) {
-        Edge<String, String> firstEdge = parseEdgeLine(line);
-        return firstEdge != null ? firstEdge.from : null;
-    }
-
-    private static <S> Set<S> parseLines(LinkedList<String> lines, Function<String, S> parser) {
-        Set<S> elements = new HashSet<>();
-        boolean parsed = false;
-        while (!parsed && !lines.isEmpty()) {
-            S parsedElement = parser.apply(lines.peek());
-            if (parsedElement != null) {
-                elements.add(parsedElement);
-                lines.pop();
-            } else
-                parsed = true;
+    /**
+     * Reads one automaton in BA format in a single pass over its lines: the
+     * initial state, then the edges, then the final states. When no final state
+     * is listed, all the states are final. The reader is not closed.
+     *
+     * @param reader the source of the automaton
+     * @param names  interner for the identifiers of the states and the labels
+     * @return the components of the automaton
+     */
+    public static ParsedAutomaton read(Reader reader, Interner<String> names) throws IOException, ParseError {
+        BufferedReader lines = reader instanceof BufferedReader ? (BufferedReader) reader
+                : new BufferedReader(reader, BUFFER_SIZE);
+        LineConsumer consumer = new LineConsumer(names);
+        // empty lines at the end of the source are ignored, the ones in the middle
+        // are parsed as every other line
+        int pendingEmptyLines = 0;
+        String line;
+        while ((line = lines.readLine()) != null) {
+            if (line.isEmpty()) {
+                pendingEmptyLines++;
+                continue;
+            }
+            for (; pendingEmptyLines > 0; pendingEmptyLines--)
+                consumer.accept("");
+            consumer.accept(line);
         }
-        return elements;
+        return consumer.result();
     }
 
-    private static Set<String> allStates(String initialState, Set<Edge<String, String>> edges) {
-        Set<String> states = extractStates(edges);
-        states.add(initialState);
-        return states;
-    }
+    /**
+     * Numbers the states and the labels as it meets them and appends each edge to
+     * an array of ints, so the memory taken by an automaton is one entry per
+     * distinct name and three ints per edge line.
+     */
+    private static final class LineConsumer {
+
+        private enum Section {
+            INITIAL_STATE, EDGES, FINAL_STATES
+        }
+
+        private final Interner<String> names;
+        private Section section = Section.INITIAL_STATE;
+        private int lineNumber = 0;
+        private final Map<String, Integer> stateIds = new HashMap<>();
+        private final List<String> states = new ArrayList<>();
+        private final Map<String, Integer> symbolIds = new HashMap<>();
+        private final List<String> symbols = new ArrayList<>();
+        private int[] edges = new int[3 * 1024];
+        private int numberOfEdges = 0;
+        private StateSet.Builder finalStates;
+
+        LineConsumer(Interner<String> names) {
+            this.names = names;
+        }
+
+        void accept(String line) throws ParseError {
+            lineNumber++;
+            if (section == Section.INITIAL_STATE) {
+                section = Section.EDGES;
+                Edge<String, String> firstEdge = parseEdgeLine(line);
+                if (firstEdge != null)
+                    // the first edge gives the initial state and is parsed as an edge
+                    stateId(firstEdge.from);
+                else {
+                    String initialState = parseStateOrSymbol(line);
+                    if (initialState != null) {
+                        stateId(initialState);
+                        return;
+                    }
+                }
+            }
+            if (section == Section.EDGES) {
+                Edge<String, String> edge = parseEdgeLine(line);
+                if (edge != null) {
+                    addEdge(edge);
+                    return;
+                }
+                section = Section.FINAL_STATES;
+                finalStates = new StateSet.Builder();
+            }
+            String finalState = parseStateOrSymbol(line);
+            if (finalState == null)
+                throw new ParseError("Parse error at line " + lineNumber + ": \"" + line
+                        + "\". Please check the specification of the '.ba' format.");
+            finalStates.add(stateId(finalState));
+        }
+
+        private void addEdge(Edge<String, String> edge) {
+            if (3 * numberOfEdges == edges.length)
+                edges = Arrays.copyOf(edges, 2 * edges.length);
+            edges[3 * numberOfEdges] = stateId(edge.from);
+            edges[3 * numberOfEdges + 1] = symbolId(edge.label);
+            edges[3 * numberOfEdges + 2] = stateId(edge.to);
+            numberOfEdges++;
+        }
+
+        private int stateId(String state) {
+            return id(state, stateIds, states);
+        }
+
+        private int symbolId(String symbol) {
+            return id(symbol, symbolIds, symbols);
+        }
+
+        private int id(String name, Map<String, Integer> ids, List<String> numbered) {
+            Integer id = ids.get(name);
+            if (id == null) {
+                id = numbered.size();
+                String interned = names.intern(name);
+                ids.put(interned, id);
+                numbered.add(interned);
+            }
+            return id;
+        }
+
+        ParsedAutomaton result() {
+            return new ParsedAutomaton(states.toArray(new String[0]), symbols.toArray(new String[0]), edges,
+                    numberOfEdges, finalStates != null ? finalStates.build() : null);
+        }
 
-    private static Set<String> extractStates(Set<Edge<String, String>> edges) {
-        Set<String> states = new HashSet<>();
-        edges.stream().forEach(edge -> states.add(edge.from));
-        edges.stream().forEach(edge -> states.add(edge.to));
-        return states;
     }
 
     private static String parseStateOrSymbol(String line) {
@@ -156,12 +258,6 @@ public final class AutomatonParser {
         return new Edge<>(from, to, label);
     }
 
-    private static void checkInputEnded(LinkedList<String> lines) throws ParseError {
-        if (!lines.isEmpty())
-            throw new ParseError("Parse error at line: \"" + lines.peek()
-                    + "\". Please check the specification of the '.ba' format.");
-    }
-
     private AutomatonParser() {
     }
 
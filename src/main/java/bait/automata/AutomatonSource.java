@@ -0,0 +1,24 @@
+package bait.automata;
+
+/**
+ * An automaton read from a file but not yet bound to an alphabet. The alphabet
+ * of the automata compared by one run is the merge of their alphabets, so it is
+ * known only after all of them have been read.
+ */
+public interface AutomatonSource {
+
+    /**
+     * @return the alphabet made of the symbols of the automaton
+     */
+    Alphabet alphabet();
+
+    /**
+     * Builds the automaton over the given alphabet, which must contain at least
+     * the symbols of the automaton.
+     *
+     * @param alphabet the alphabet used to build the automaton
+     * @return the automaton
+     */
+    BuchiAutomaton build(Alphabet alphabet) throws AutomatonBuilder.BuildError;
+
+}
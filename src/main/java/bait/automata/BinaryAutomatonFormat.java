@@ -0,0 +1,359 @@
+package bait.automata;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashSet;
+import java.util.Set;
+
+import bait.automata.AutomatonParser.ParseError;
+import bait.collections.StateSet;
+
+/**
+ * Binary encoding of a {@link BuchiAutomaton}, meant to be written once and
+ * then loaded many times by mapping the file in memory. All the numbers are
+ * big-endian 32-bit integers, and the sections follow each other in this order:
+ *
+ * <pre>
+ * header                 MAGIC, VERSION, |Σ|, n (states), m (edges), initial state
+ * symbol table           |Σ| + 1 byte offsets, then the UTF-8 names, padded to 4 bytes
+ * state table            n + 1 byte offsets, then the UTF-8 identifiers, padded to 4 bytes
+ * accepting bitmap       ceil(n / 32) words, bit s % 32 of word s / 32 set iff state s is final
+ * successors offsets     n * |Σ| + 1 integers
+ * successors             m integers
+ * predecessors offsets   n * |Σ| + 1 integers
+ * predecessors           m integers
+ * </pre>
+ *
+ * The symbols are sorted by name, as in {@link Alphabet}, and the transition
+ * arrays are in the compressed sparse row format of {@link BuchiAutomaton}.
+ */
+public final class BinaryAutomatonFormat {
+
+    public static final int MAGIC = 0x42414954; // "BAIT"
+    public static final int VERSION = 1;
+
+    private static final int HEADER_INTS = 6;
+
+    /**
+     * Writes the automaton in binary format.
+     *
+     * @param ba   the automaton
+     * @param path the path of the file to write
+     */
+    public static void write(BuchiAutomaton ba, Path path) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(path), 1 << 16))) {
+            int numberOfStates = ba.numberOfStates();
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(ba.numberOfSymbols);
+            out.writeInt(numberOfStates);
+            out.writeInt(ba.successors.length);
+            out.writeInt(ba.initialState().getIntIndex());
+            String[] symbols = new String[ba.numberOfSymbols];
+            for (Symbol symbol : ba.alphabet())
+                symbols[symbol.id()] = symbol.toString();
+            writeStrings(out, symbols);
+            String[] states = new String[numberOfStates];
+            for (int s = 0; s < numberOfStates; s++)
+                states[s] = ba.state(s).toString();
+            writeStrings(out, states);
+            int[] accepting = new int[bitmapWords(numberOfStates)];
+            ba.finalStatesSet().forEach(s -> accepting[s >>> 5] |= 1 << (s & 31));
+            writeInts(out, accepting);
+            writeInts(out, ba.successorsOffsets);
+            writeInts(out, ba.successors);
+            writeInts(out, ba.predecessorsOffsets);
+            writeInts(out, ba.predecessors);
+        }
+    }
+
+    private static void writeStrings(DataOutputStream out, String[] strings) throws IOException {
+        byte[][] encoded = new byte[strings.length][];
+        int offset = 0;
+        out.writeInt(offset);
+        for (int i = 0; i < strings.length; i++) {
+            encoded[i] = strings[i].getBytes(StandardCharsets.UTF_8);
+            offset += encoded[i].length;
+            out.writeInt(offset);
+        }
+        for (byte[] bytes : encoded)
+            out.write(bytes);
+        for (int i = offset; i < padded(offset); i++)
+            out.writeByte(0);
+    }
+
+    private static void writeInts(DataOutputStream out, int[] ints) throws IOException {
+        for (int i : ints)
+            out.writeInt(i);
+    }
+
+    /**
+     * Maps the file in memory and checks that all its sections are consistent.
+     * The content of the file is copied only when the automaton is built, and the
+     * identifiers of the states are decoded only when the states are requested.
+     *
+     * @param path path of a file written by {@link #write}
+     * @return the automaton in the file, not yet bound to an alphabet
+     */
+    public static MappedAutomaton load(Path path) throws IOException, ParseError {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE)
+                throw new ParseError("Binary automaton " + path + " is larger than 2GB");
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        return new MappedAutomaton(path, buffer);
+    }
+
+    /**
+     * An automaton in binary format mapped in memory.
+     */
+    public static final class MappedAutomaton implements AutomatonSource {
+
+        private final Path path;
+        private final ByteBuffer buffer;
+        private final int numberOfSymbols;
+        private final int numberOfStates;
+        private final int numberOfEdges;
+        private final int initialState;
+        private final int symbolsTable;
+        private final int statesTable;
+        private final int acceptingBitmap;
+        private final int successorsOffsets;
+        private final int successors;
+        private final int predecessorsOffsets;
+        private final int predecessors;
+
+        /**
+         * Checks every section of the file, so that a corrupted file is rejected
+         * here and not when some state or transition is first read. The positions
+         * are computed on longs, since the sizes in the header can be anything.
+         */
+        private MappedAutomaton(Path path, ByteBuffer buffer) throws ParseError {
+            this.path = path;
+            this.buffer = buffer;
+            if (buffer.capacity() < HEADER_INTS * Integer.BYTES || buffer.getInt(0) != MAGIC)
+                throw new ParseError(path + " is not an automaton in binary format");
+            if (buffer.getInt(4) != VERSION)
+                throw new ParseError("Unsupported version " + buffer.getInt(4) + " of the binary format in " + path
+                        + ", expected " + VERSION);
+            numberOfSymbols = buffer.getInt(8);
+            numberOfStates = buffer.getInt(12);
+            numberOfEdges = buffer.getInt(16);
+            initialState = buffer.getInt(20);
+            if (numberOfSymbols < 0 || numberOfStates < 1 || numberOfEdges < 0)
+                throw corrupted("invalid sizes in the header");
+            if (initialState < 0 || initialState >= numberOfStates)
+                throw corrupted("the initial state " + initialState + " is not a state");
+            long numberOfOffsets = (long) numberOfStates * numberOfSymbols + 1;
+            if (numberOfOffsets > Integer.MAX_VALUE)
+                throw corrupted("too many states and symbols");
+            symbolsTable = HEADER_INTS * Integer.BYTES;
+            statesTable = endOfStrings(symbolsTable, numberOfSymbols);
+            acceptingBitmap = endOfStrings(statesTable, numberOfStates);
+            successorsOffsets = endOfInts(acceptingBitmap, bitmapWords(numberOfStates));
+            successors = endOfInts(successorsOffsets, numberOfOffsets);
+            predecessorsOffsets = endOfInts(successors, numberOfEdges);
+            predecessors = endOfInts(predecessorsOffsets, numberOfOffsets);
+            if (endOfInts(predecessors, numberOfEdges) != buffer.capacity())
+                throw corrupted("unexpected bytes at the end");
+            checkAcceptingBitmap();
+            checkTransitions(successorsOffsets, successors, (int) numberOfOffsets);
+            checkTransitions(predecessorsOffsets, predecessors, (int) numberOfOffsets);
+        }
+
+        private ParseError corrupted(String reason) {
+            return new ParseError("Binary automaton " + path + " is truncated or corrupted: " + reason);
+        }
+
+        /**
+         * @return the position after the given number of ints from the given
+         *         position, which must be in the file
+         */
+        private int endOfInts(int position, long numberOfInts) throws ParseError {
+            long end = position + numberOfInts * Integer.BYTES;
+            if (end > buffer.capacity())
+                throw corrupted("the section at byte " + position + " ends after the end of the file");
+            return (int) end;
+        }
+
+        /**
+         * Checks that the offsets of the string table start from 0 and do not
+         * decrease, and that the strings are in the file.
+         *
+         * @return the position after the padded strings of the table
+         */
+        private int endOfStrings(int table, int numberOfStrings) throws ParseError {
+            int bytesPosition = endOfInts(table, numberOfStrings + 1L);
+            int previous = 0;
+            for (int i = 0; i <= numberOfStrings; i++) {
+                int offset = buffer.getInt(table + i * Integer.BYTES);
+                if (offset < previous || (i == 0 && offset != 0))
+                    throw corrupted("invalid offset " + offset + " in the string table at byte " + table);
+                previous = offset;
+            }
+            if (bytesPosition + (long) previous > buffer.capacity())
+                throw corrupted("the strings of the table at byte " + table + " end after the end of the file");
+            return endOfInts(bytesPosition, padded(previous) / Integer.BYTES);
+        }
+
+        private void checkAcceptingBitmap() throws ParseError {
+            int words = bitmapWords(numberOfStates);
+            int usedBits = numberOfStates - (words - 1) * Integer.SIZE;
+            if (usedBits < Integer.SIZE
+                    && buffer.getInt(acceptingBitmap + (words - 1) * Integer.BYTES) >>> usedBits != 0)
+                throw corrupted("accepting states out of range");
+        }
+
+        /**
+         * Checks that the offsets go from 0 to the number of edges without
+         * decreasing, and that the targets are states.
+         */
+        private void checkTransitions(int offsetsPosition, int targetsPosition, int numberOfOffsets)
+                throws ParseError {
+            int previous = 0;
+            for (int i = 0; i < numberOfOffsets; i++) {
+                int offset = buffer.getInt(offsetsPosition + i * Integer.BYTES);
+                if (offset < previous || (i == 0 && offset != 0))
+                    throw corrupted("invalid offset " + offset + " in the transitions at byte " + offsetsPosition);
+                previous = offset;
+            }
+            if (previous != numberOfEdges)
+                throw corrupted("the transitions at byte " + offsetsPosition + " do not end with the number of edges");
+            for (int i = 0; i < numberOfEdges; i++) {
+                int target = buffer.getInt(targetsPosition + i * Integer.BYTES);
+                if (target < 0 || target >= numberOfStates)
+                    throw corrupted("the target " + target + " at byte " + targetsPosition + " is not a state");
+            }
+        }
+
+        public int numberOfStates() {
+            return numberOfStates;
+        }
+
+        public int numberOfEdges() {
+            return numberOfEdges;
+        }
+
+        @Override
+        public Alphabet alphabet() {
+            Set<String> symbols = new HashSet<>();
+            for (int i = 0; i < numberOfSymbols; i++)
+                symbols.add(string(symbolsTable, numberOfSymbols, i));
+            return Alphabet.of(symbols);
+        }
+
+        /**
+         * Builds the automaton over the given alphabet. The transition arrays are
+         * copied in bulk from the mapped file, and the states are created lazily.
+         */
+        @Override
+        public BuchiAutomaton build(Alphabet alphabet) throws AutomatonBuilder.BuildError {
+            BuchiAutomaton ba = new BuchiAutomaton();
+            ba.setAlphabet(alphabet);
+            ba.numberOfStates = numberOfStates;
+            ba.numberOfSymbols = alphabet.size();
+            ba.finalStatesSet = acceptingStates();
+            int[] symbolsIds = symbolsIds(alphabet);
+            ba.successorsOffsets = offsets(successorsOffsets, symbolsIds, alphabet.size());
+            ba.successors = ints(successors, numberOfEdges);
+            ba.predecessorsOffsets = offsets(predecessorsOffsets, symbolsIds, alphabet.size());
+            ba.predecessors = ints(predecessors, numberOfEdges);
+            ba.lazyStates = new LazyStates(ba, index -> string(statesTable, numberOfStates, index));
+            ba.initialState = ba.lazyStates.get(initialState);
+            return ba;
+        }
+
+        private StateSet acceptingStates() {
+            StateSet.Builder accepting = new StateSet.Builder();
+            for (int word = 0; word < bitmapWords(numberOfStates); word++) {
+                int bits = buffer.getInt(acceptingBitmap + word * Integer.BYTES);
+                for (; bits != 0; bits &= bits - 1)
+                    accepting.add(word * Integer.SIZE + Integer.numberOfTrailingZeros(bits));
+            }
+            return accepting.build();
+        }
+
+        /**
+         * Both the symbols in the file and the ones in the alphabet are sorted by
+         * name, so the ids in the file are mapped to increasing ids.
+         */
+        private int[] symbolsIds(Alphabet alphabet) throws AutomatonBuilder.BuildError {
+            int[] ids = new int[numberOfSymbols];
+            for (int i = 0; i < numberOfSymbols; i++) {
+                String name = string(symbolsTable, numberOfSymbols, i);
+                Symbol symbol = alphabet.symbol(name);
+                if (symbol == null)
+                    throw new AutomatonBuilder.BuildError("Symbol " + name + " is not in the alphabet");
+                ids[i] = symbol.id();
+                if (i > 0 && ids[i] <= ids[i - 1])
+                    throw new AutomatonBuilder.BuildError("The symbols of the binary automaton are not sorted");
+            }
+            return ids;
+        }
+
+        /**
+         * Reads the offsets of one transition array. When the alphabet has symbols
+         * that are not in the file, the rows of those symbols are empty, so they
+         * begin where the row of the next symbol of the file begins; the array of
+         * the transitions stays the same because the order of the rows does not
+         * change.
+         */
+        private int[] offsets(int position, int[] symbolsIds, int alphabetSize) {
+            int[] fileOffsets = ints(position, numberOfStates * numberOfSymbols + 1);
+            if (alphabetSize == numberOfSymbols)
+                return fileOffsets;
+            // symbolsBefore[a] is the number of symbols of the file with id less than a
+            int[] symbolsBefore = new int[alphabetSize];
+            for (int a = 0, i = 0; a < alphabetSize; a++) {
+                while (i < numberOfSymbols && symbolsIds[i] < a)
+                    i++;
+                symbolsBefore[a] = i;
+            }
+            int[] offsets = new int[numberOfStates * alphabetSize + 1];
+            for (int s = 0; s < numberOfStates; s++)
+                for (int a = 0; a < alphabetSize; a++)
+                    offsets[s * alphabetSize + a] = fileOffsets[s * numberOfSymbols + symbolsBefore[a]];
+            offsets[numberOfStates * alphabetSize] = numberOfEdges;
+            return offsets;
+        }
+
+        private int[] ints(int position, int length) {
+            int[] ints = new int[length];
+            buffer.duplicate().position(position).slice().asIntBuffer().get(ints);
+            return ints;
+        }
+
+        private String string(int table, int numberOfStrings, int index) {
+            int begin = buffer.getInt(table + index * Integer.BYTES);
+            int end = buffer.getInt(table + (index + 1) * Integer.BYTES);
+            int bytesPosition = table + (numberOfStrings + 1) * Integer.BYTES;
+            byte[] bytes = new byte[end - begin];
+            for (int i = 0; i < bytes.length; i++)
+                bytes[i] = buffer.get(bytesPosition + begin + i);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+    }
+
+    private static int bitmapWords(int numberOfStates) {
+        return (numberOfStates + Integer.SIZE - 1) / Integer.SIZE;
+    }
+
+    private static int padded(int bytes) {
+        return (bytes + Integer.BYTES - 1) & -Integer.BYTES;
+    }
+
+    private BinaryAutomatonFormat() {
+    }
+
+}
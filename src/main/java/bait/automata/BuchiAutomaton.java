@@ -1,98 +1,311 @@
 package bait.automata;
 
+import java.util.Collections;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.IntFunction;
 
 import bait.collections.Pair;
+import bait.collections.StateRelation;
+import bait.collections.StateSet;
 
+/**
+ * Büchi automaton whose transitions are stored in compressed sparse row format:
+ * the successors of the state with index s following the symbol with id a are
+ * the entries of successors between successorsOffsets[s * |Σ| + a] (included)
+ * and successorsOffsets[s * |Σ| + a + 1] (excluded), and the same holds for the
+ * predecessors. The index-based accessors do not allocate. The State objects
+ * of an automaton read from a file, and of its reductions, are created only when
+ * they are first requested (see {@link LazyStates}).
+ */
 public final class BuchiAutomaton {
 
-    protected Set<State> states;
+    protected volatile Set<State> states;
+    protected State[] indexedStates; // null when the states are built lazily
+    protected LazyStates lazyStates;
+    protected int numberOfStates;
     protected State initialState;
-    protected Set<State> finalStates;
+    protected volatile Set<State> finalStates;
+    protected StateSet finalStatesSet;
     protected Alphabet alphabet;
+    protected int numberOfSymbols;
+    protected int[] successorsOffsets;
+    protected int[] successors;
+    protected int[] predecessorsOffsets;
+    protected int[] predecessors;
+    // the contexts are built on first use and then shared by all the computations
+    // on the automaton, since they never change once the alphabet is set
+    private volatile Map<Symbol, StateRelation> context;
+    private volatile Map<Symbol, StateRelation> finalContext;
+    private volatile StronglyConnectedComponents stronglyConnectedComponents;
 
     protected BuchiAutomaton() {
     }
 
+    /**
+     * @return an unmodifiable view of the states of the automaton
+     */
     public Set<State> states() {
-        return new HashSet<>(states);
+        Set<State> states = this.states;
+        if (states == null)
+            this.states = states = lazyStates.all();
+        return states;
+    }
+
+    /**
+     * @param index the index of the state
+     * @return the state such that state.getIntIndex() == index
+     */
+    public State state(int index) {
+        if (indexedStates == null)
+            return lazyStates.get(index);
+        return indexedStates[index];
+    }
+
+    /**
+     * @return the function from the index of a state to its identifier, which
+     *         does not keep the transitions of the automaton
+     */
+    IntFunction<String> identifiers() {
+        if (indexedStates == null)
+            return lazyStates.identifiers();
+        State[] states = indexedStates;
+        return index -> states[index].toString();
     }
 
     public State initialState() {
         return initialState;
     }
 
+    /**
+     * @return an unmodifiable view of the final states of the automaton
+     */
     public Set<State> finalStates() {
+        Set<State> finalStates = this.finalStates;
+        if (finalStates == null)
+            this.finalStates = finalStates = lazyStates.of(finalStatesSet);
         return finalStates;
     }
 
     public int numberOfStates() {
-        return states().size();
+        return numberOfStates;
     }
 
-    public void setAlphabet(Alphabet alphabet) {
+    /**
+     * Sets the alphabet of an automaton that is being built. The ids of its
+     * symbols index the transitions, so it cannot change afterwards.
+     */
+    void setAlphabet(Alphabet alphabet) {
         this.alphabet = alphabet;
+        this.context = null;
+        this.finalContext = null;
     }
 
     public Alphabet alphabet() {
         return alphabet;
     }
 
+    /**
+     * @param state the index of a state
+     * @return true iff the state with the given index is final
+     */
+    public boolean isFinal(int state) {
+        return finalStatesSet.contains(state);
+    }
+
+    /**
+     * @return the set of indices of the final states
+     */
+    public StateSet finalStatesSet() {
+        return finalStatesSet;
+    }
+
+    /**
+     * @param state  the index of a state
+     * @param symbol the id of a symbol
+     * @return the position in the successors array of the first successor of the
+     *         state following the symbol
+     */
+    public int successorsBegin(int state, int symbol) {
+        return successorsOffsets[state * numberOfSymbols + symbol];
+    }
+
+    /**
+     * @param state  the index of a state
+     * @param symbol the id of a symbol
+     * @return the position in the successors array after the last successor of the
+     *         state following the symbol
+     */
+    public int successorsEnd(int state, int symbol) {
+        return successorsOffsets[state * numberOfSymbols + symbol + 1];
+    }
+
+    /**
+     * @param state the index of a state
+     * @return the position in the successors array of the first successor of the
+     *         state following any symbol
+     */
+    public int successorsBegin(int state) {
+        return successorsOffsets[state * numberOfSymbols];
+    }
+
+    /**
+     * @param state the index of a state
+     * @return the position in the successors array after the last successor of the
+     *         state following any symbol
+     */
+    public int successorsEnd(int state) {
+        return successorsOffsets[(state + 1) * numberOfSymbols];
+    }
+
+    /**
+     * @param position a position in the successors array
+     * @return the index of the state at the given position
+     */
+    public int successor(int position) {
+        return successors[position];
+    }
+
+    /**
+     * @param state  the index of a state
+     * @param symbol the id of a symbol
+     * @return the position in the predecessors array of the first predecessor of
+     *         the state following the symbol
+     */
+    public int predecessorsBegin(int state, int symbol) {
+        return predecessorsOffsets[state * numberOfSymbols + symbol];
+    }
+
+    /**
+     * @param state  the index of a state
+     * @param symbol the id of a symbol
+     * @return the position in the predecessors array after the last predecessor of
+     *         the state following the symbol
+     */
+    public int predecessorsEnd(int state, int symbol) {
+        return predecessorsOffsets[state * numberOfSymbols + symbol + 1];
+    }
+
+    /**
+     * @param state the index of a state
+     * @return the position in the predecessors array of the first predecessor of
+     *         the state following any symbol
+     */
+    public int predecessorsBegin(int state) {
+        return predecessorsOffsets[state * numberOfSymbols];
+    }
+
+    /**
+     * @param state the index of a state
+     * @return the position in the predecessors array after the last predecessor of
+     *         the state following any symbol
+     */
+    public int predecessorsEnd(int state) {
+        return predecessorsOffsets[(state + 1) * numberOfSymbols];
+    }
+
+    /**
+     * @param position a position in the predecessors array
+     * @return the index of the state at the given position
+     */
+    public int predecessor(int position) {
+        return predecessors[position];
+    }
+
+    /**
+     * @param states input set of states of this automaton
+     * @param symbol the symbol to follow from the set of states
+     * @return the set of states that can be reached from one state in the input set
+     *         following the symbol
+     */
+    public StateSet post(StateSet states, Symbol symbol) {
+        StateSet.Builder post = new StateSet.Builder();
+        int a = symbol.id();
+        for (int s = states.next(0); s >= 0; s = states.next(s + 1)) {
+            int end = successorsEnd(s, a);
+            for (int i = successorsBegin(s, a); i < end; i++)
+                post.add(successors[i]);
+        }
+        return post.build();
+    }
+
     /**
      * @return the map that associates each symbol in the alphabet with the set of
      *         pairs of states in the automaton such that from the first state it is
-     *         possible to to reach the second state following the symbol. If the
-     *         context of a symbol is empty, it won't be in the result. For example,
-     *         if in the automaton there's the transition q1-a->q2, then (q1,q2)
-     *         will be in the context associated with the symbol a. The set of pairs
-     *         is represented as a map for efficiency reasons.
-     */
-    public Map<Symbol, Map<State, Set<State>>> context() {
-        Map<Symbol, Map<State, Set<State>>> ctx = new HashMap<>();
-        for (Symbol symbol : alphabet)
-            ctx.put(symbol, context(symbol));
-        return ctx;
-    }
-
-    private Map<State, Set<State>> context(Symbol symbol) {
-        Map<State, Set<State>> ctx = new HashMap<>();
-        for (State from : states()) {
-            Set<State> to = from.post(symbol);
-            if (!to.isEmpty())
-                ctx.put(from, to);
+     *         possible to to reach the second state following the symbol. For
+     *         example, if in the automaton there's the transition q1-a->q2, then
+     *         (q1,q2) will be in the context associated with the symbol a. The set
+     *         of pairs is represented as a relation over the indices of the states
+     *         for efficiency reasons. The map is unmodifiable, and it is built only
+     *         once.
+     */
+    public Map<Symbol, StateRelation> context() {
+        Map<Symbol, StateRelation> context = this.context;
+        if (context == null) {
+            Map<Symbol, StateRelation> ctx = new HashMap<>();
+            for (Symbol symbol : alphabet)
+                ctx.put(symbol, context(symbol));
+            this.context = context = Collections.unmodifiableMap(ctx);
         }
-        return ctx;
+        return context;
+    }
+
+    private StateRelation context(Symbol symbol) {
+        StateRelation.Builder ctx = new StateRelation.Builder();
+        int a = symbol.id();
+        for (int from = 0; from < numberOfStates; from++) {
+            int end = successorsEnd(from, a);
+            for (int i = successorsBegin(from, a); i < end; i++)
+                ctx.add(from, successors[i]);
+        }
+        return ctx.build();
     }
 
     /**
      * @return the map that associates each symbol in the alphabet with the set of
      *         pairs of states in the automaton such that from the first state it is
      *         possible to reach the second state following the symbol, and at least
-     *         one of the two states is final. If the final context of a symbol is
-     *         empty, it won't be in the result. For example, if in the automaton
+     *         one of the two states is final. For example, if in the automaton
      *         there's the transition q1-a->q2, then (q1,q2) will be in the context
      *         associated with the symbol a if and only if at least one of the two
-     *         states is final. The set of pairs is represented as a map for
-     *         efficiency reasons.
-     */
-    public Map<Symbol, Map<State, Set<State>>> finalContext() {
-        Map<Symbol, Map<State, Set<State>>> ctxF = new HashMap<>();
-        for (Symbol symbol : alphabet)
-            ctxF.put(symbol, finalContext(symbol));
-        return ctxF;
-    }
-
-    private Map<State, Set<State>> finalContext(Symbol symbol) {
-        Map<State, Set<State>> ctxF = new HashMap<>();
-        for (State from : states()) {
-            Set<State> to = from.postF(symbol);
-            if (!to.isEmpty())
-                ctxF.put(from, to);
+     *         states is final. The set of pairs is represented as a relation over
+     *         the indices of the states for efficiency reasons. The map is
+     *         unmodifiable, and it is built only once.
+     */
+    public Map<Symbol, StateRelation> finalContext() {
+        Map<Symbol, StateRelation> finalContext = this.finalContext;
+        if (finalContext == null) {
+            Map<Symbol, StateRelation> ctxF = new HashMap<>();
+            for (Symbol symbol : alphabet)
+                ctxF.put(symbol, finalContext(symbol));
+            this.finalContext = finalContext = Collections.unmodifiableMap(ctxF);
+        }
+        return finalContext;
+    }
+
+    private StateRelation finalContext(Symbol symbol) {
+        StateRelation.Builder ctxF = new StateRelation.Builder();
+        int a = symbol.id();
+        for (int from = 0; from < numberOfStates; from++) {
+            boolean fromIsFinal = isFinal(from);
+            int end = successorsEnd(from, a);
+            for (int i = successorsBegin(from, a); i < end; i++)
+                if (fromIsFinal || isFinal(successors[i]))
+                    ctxF.add(from, successors[i]);
         }
-        return ctxF;
+        return ctxF.build();
+    }
+
+    /**
+     * @return the strongly connected components of the automaton, computed on
+     *         first use
+     */
+    public StronglyConnectedComponents stronglyConnectedComponents() {
+        StronglyConnectedComponents components = this.stronglyConnectedComponents;
+        if (components == null)
+            this.stronglyConnectedComponents = components = new StronglyConnectedComponents(this);
+        return components;
     }
 
     @Override
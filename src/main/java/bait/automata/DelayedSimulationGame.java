@@ -0,0 +1,260 @@
+package bait.automata;
+
+import java.util.Arrays;
+
+/**
+ * The delayed simulation game of an automaton, solved as a Büchi game in the
+ * way of Etessami, Wilke and Schuller. In a position (p, q, pending) the
+ * spoiler moves from p with some transition p-a->p', to the position (p', a, q,
+ * obligation) of the duplicator, where obligation is true iff p' is final or
+ * pending is true. Then the duplicator answers from q with some transition
+ * q-a->q', and the game goes on from (p', q', pending'), where pending' is true
+ * iff q' is not final and obligation is true. The duplicator wins the plays
+ * that visit the positions without pending obligations infinitely often and
+ * the plays in which the spoiler cannot move.
+ *
+ * The game is solved with the classical algorithm for Büchi games: the
+ * positions from which the duplicator cannot force a visit to a position
+ * without obligations are won by the spoiler, and so are the ones from which the
+ * spoiler can force the game into them. They are removed and the two
+ * attractors are computed again on what is left, until the duplicator can
+ * force a visit from every position. Each attractor is a worklist algorithm
+ * that keeps for each position the number of its moves that are not attracted
+ * yet, and the moves are enumerated from the transitions of the automaton.
+ */
+final class DelayedSimulationGame {
+
+    private final BuchiAutomaton automaton;
+    private final int n;
+    private final int numberOfSymbols;
+    private final int numberOfPositions;
+    // the index of each pair (p', a) with some transition p-a->p' among the ones
+    // with some, or -1: only those pairs appear in positions of the duplicator
+    private final int[] targets;
+    // the positions of the spoiler already known to be won by the spoiler, which
+    // are no longer in the game
+    private final boolean[] spoilerWins;
+    // for each position of the duplicator, its answers that are not won yet by
+    // the spoiler. The spoiler wins the position when none is left
+    private final int[] answersLeft;
+    // the positions from which the duplicator can force a visit to a position
+    // without obligations, in the current round
+    private final boolean[] attracted;
+    private final boolean[] duplicatorAttracted;
+    // for each position of the spoiler, its moves that do not lead yet to an
+    // attracted position of the duplicator, in the current round
+    private final int[] movesLeft;
+    private int[] stack = new int[1024];
+    private int stackSize = 0;
+
+    /**
+     * @param automaton the automaton
+     * @throws IllegalArgumentException if the positions do not fit in an int
+     */
+    DelayedSimulationGame(BuchiAutomaton automaton) {
+        this.automaton = automaton;
+        this.n = automaton.numberOfStates();
+        this.numberOfSymbols = automaton.numberOfSymbols;
+        targets = new int[n * numberOfSymbols];
+        int numberOfTargets = 0;
+        for (int pSuccessor = 0; pSuccessor < n; pSuccessor++)
+            for (int a = 0; a < numberOfSymbols; a++)
+                targets[pSuccessor * numberOfSymbols + a] = automaton.predecessorsEnd(pSuccessor,
+                        a) > automaton.predecessorsBegin(pSuccessor, a) ? numberOfTargets++ : -1;
+        if (2L * n * n > Integer.MAX_VALUE || 2L * n * numberOfTargets > Integer.MAX_VALUE)
+            throw new IllegalArgumentException("The delayed simulation game of an automaton with " + n
+                    + " states and " + automaton.successors.length + " transitions is too large");
+        numberOfPositions = 2 * n * n;
+        spoilerWins = new boolean[numberOfPositions];
+        attracted = new boolean[numberOfPositions];
+        movesLeft = new int[numberOfPositions];
+        answersLeft = new int[2 * n * numberOfTargets];
+        duplicatorAttracted = new boolean[answersLeft.length];
+        for (int pSuccessor = 0; pSuccessor < n; pSuccessor++)
+            for (int a = 0; a < numberOfSymbols; a++) {
+                int target = targets[pSuccessor * numberOfSymbols + a];
+                if (target < 0)
+                    continue;
+                for (int q = 0; q < n; q++) {
+                    int answers = automaton.successorsEnd(q, a) - automaton.successorsBegin(q, a);
+                    answersLeft[duplicatorPosition(target, q, false)] = answers;
+                    answersLeft[duplicatorPosition(target, q, true)] = answers;
+                }
+            }
+    }
+
+    /**
+     * @return true iff q delayed-simulates p
+     */
+    boolean duplicatorWins(int p, int q) {
+        return !spoilerWins[position(p, q, automaton.isFinal(p) && !automaton.isFinal(q))];
+    }
+
+    void solve() {
+        // the positions of the duplicator without answers are not reached from
+        // their answers, so the positions that move to them are won first
+        for (int position = 0; position < numberOfPositions; position++)
+            if (hasUnansweredMove(p(position), q(position)))
+                push(position);
+        attractToSpoilerWins();
+        while (true) {
+            attractToPositionsWithoutObligations();
+            boolean spoilerTraps = false;
+            for (int position = 0; position < numberOfPositions; position++)
+                if (!spoilerWins[position] && !attracted[position]) {
+                    push(position);
+                    spoilerTraps = true;
+                }
+            if (!spoilerTraps)
+                return;
+            attractToSpoilerWins();
+        }
+    }
+
+    /**
+     * Computes the positions of the game from which the duplicator can force a
+     * visit to a position without obligations, in zero or more rounds. A
+     * position of the duplicator is attracted as soon as one of its answers is,
+     * and a position of the spoiler when all its moves are.
+     */
+    private void attractToPositionsWithoutObligations() {
+        Arrays.fill(attracted, false);
+        Arrays.fill(duplicatorAttracted, false);
+        for (int position = 0; position < numberOfPositions; position++) {
+            if (spoilerWins[position])
+                continue;
+            int p = p(position);
+            movesLeft[position] = automaton.successorsEnd(p) - automaton.successorsBegin(p);
+            if (!pending(position) || movesLeft[position] == 0)
+                push(position);
+        }
+        while (stackSize > 0) {
+            int position = stack[--stackSize];
+            if (attracted[position])
+                continue;
+            attracted[position] = true;
+            int pSuccessor = p(position);
+            int qSuccessor = q(position);
+            for (int a = 0; a < numberOfSymbols; a++) {
+                int target = targets[pSuccessor * numberOfSymbols + a];
+                if (target < 0)
+                    continue;
+                int end = automaton.predecessorsEnd(qSuccessor, a);
+                for (int i = automaton.predecessorsBegin(qSuccessor, a); i < end; i++)
+                    for (int obligation = 0; obligation < 2; obligation++) {
+                        if (!answerLeadsTo(qSuccessor, obligation == 1, pending(position)))
+                            continue;
+                        int q = automaton.predecessor(i);
+                        int duplicatorPosition = duplicatorPosition(target, q, obligation == 1);
+                        if (duplicatorAttracted[duplicatorPosition])
+                            continue;
+                        duplicatorAttracted[duplicatorPosition] = true;
+                        forEachMove(pSuccessor, a, q, obligation == 1, true);
+                    }
+            }
+        }
+    }
+
+    /**
+     * Adds to the positions won by the spoiler the ones in the stack and the ones
+     * from which the spoiler can force the game into them. A position of the
+     * spoiler is won as soon as one of its moves is, and a position of the
+     * duplicator when all its answers are.
+     */
+    private void attractToSpoilerWins() {
+        while (stackSize > 0) {
+            int position = stack[--stackSize];
+            if (spoilerWins[position])
+                continue;
+            spoilerWins[position] = true;
+            int pSuccessor = p(position);
+            int qSuccessor = q(position);
+            for (int a = 0; a < numberOfSymbols; a++) {
+                int target = targets[pSuccessor * numberOfSymbols + a];
+                if (target < 0)
+                    continue;
+                int end = automaton.predecessorsEnd(qSuccessor, a);
+                for (int i = automaton.predecessorsBegin(qSuccessor, a); i < end; i++)
+                    for (int obligation = 0; obligation < 2; obligation++) {
+                        if (!answerLeadsTo(qSuccessor, obligation == 1, pending(position)))
+                            continue;
+                        int q = automaton.predecessor(i);
+                        if (--answersLeft[duplicatorPosition(target, q, obligation == 1)] == 0)
+                            forEachMove(pSuccessor, a, q, obligation == 1, false);
+                    }
+            }
+        }
+    }
+
+    /**
+     * @return true iff p has a transition following some symbol a such that q has
+     *         no transition following a
+     */
+    private boolean hasUnansweredMove(int p, int q) {
+        for (int a = 0; a < numberOfSymbols; a++)
+            if (automaton.successorsEnd(p, a) > automaton.successorsBegin(p, a)
+                    && automaton.successorsEnd(q, a) == automaton.successorsBegin(q, a))
+                return true;
+        return false;
+    }
+
+    /**
+     * @return true iff the answer of the duplicator to q' from a position with the
+     *         given obligation leads to a position with the given pending flag
+     */
+    private boolean answerLeadsTo(int qSuccessor, boolean obligation, boolean pending) {
+        return (!automaton.isFinal(qSuccessor) && obligation) == pending;
+    }
+
+    /**
+     * Visits the positions (p, q, pending) of the spoiler that move to (p', a, q,
+     * obligation), one for each transition p-a->p': if p' is final they have an
+     * obligation whatever their pending flag, otherwise their pending flag is the
+     * obligation. In the attractor of the duplicator the move is attracted, in
+     * the one of the spoiler the position is won.
+     */
+    private void forEachMove(int pSuccessor, int a, int q, boolean obligation, boolean attractedMove) {
+        if (automaton.isFinal(pSuccessor) && !obligation)
+            return;
+        int lastPending = obligation ? 1 : 0;
+        int firstPending = automaton.isFinal(pSuccessor) ? 0 : lastPending;
+        int end = automaton.predecessorsEnd(pSuccessor, a);
+        for (int i = automaton.predecessorsBegin(pSuccessor, a); i < end; i++)
+            for (int pending = firstPending; pending <= lastPending; pending++) {
+                int position = position(automaton.predecessor(i), q, pending == 1);
+                if (spoilerWins[position])
+                    continue;
+                if (!attractedMove)
+                    push(position);
+                else if (!attracted[position] && --movesLeft[position] == 0)
+                    push(position);
+            }
+    }
+
+    private void push(int position) {
+        if (stackSize == stack.length)
+            stack = Arrays.copyOf(stack, 2 * stack.length);
+        stack[stackSize++] = position;
+    }
+
+    private int position(int p, int q, boolean pending) {
+        return (pending ? n * n : 0) + p * n + q;
+    }
+
+    private int duplicatorPosition(int target, int q, boolean obligation) {
+        return (target * n + q) * 2 + (obligation ? 1 : 0);
+    }
+
+    private int p(int position) {
+        return (position % (n * n)) / n;
+    }
+
+    private int q(int position) {
+        return position % n;
+    }
+
+    private boolean pending(int position) {
+        return position >= n * n;
+    }
+
+}
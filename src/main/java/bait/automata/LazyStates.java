@@ -0,0 +1,70 @@
+package bait.automata;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.IntFunction;
+
+import bait.collections.StateSet;
+
+/**
+ * The states of an automaton whose identifiers are decoded on demand. Each State
+ * object is created the first time it is requested, and afterwards the same
+ * object is returned. It is safe to share between threads.
+ */
+final class LazyStates {
+
+    private final BuchiAutomaton automaton;
+    private final IntFunction<String> identifiers;
+    private final AtomicReferenceArray<State> states;
+
+    /**
+     * @param automaton   the automaton that owns the states, whose final states
+     *                    must be already set
+     * @param identifiers function from the index of a state to its identifier
+     */
+    LazyStates(BuchiAutomaton automaton, IntFunction<String> identifiers) {
+        this.automaton = automaton;
+        this.identifiers = identifiers;
+        this.states = new AtomicReferenceArray<>(automaton.numberOfStates());
+    }
+
+    IntFunction<String> identifiers() {
+        return identifiers;
+    }
+
+    State get(int index) {
+        State state = states.get(index);
+        if (state != null)
+            return state;
+        state = new State(identifiers.apply(index));
+        state.setIndex(index);
+        state.setIsFinal(automaton.isFinal(index));
+        state.setAutomaton(automaton);
+        if (states.compareAndSet(index, null, state))
+            return state;
+        return states.get(index);
+    }
+
+    /**
+     * @return an unmodifiable set with all the states
+     */
+    Set<State> all() {
+        Set<State> all = new HashSet<>();
+        for (int index = 0; index < states.length(); index++)
+            all.add(get(index));
+        return Collections.unmodifiableSet(all);
+    }
+
+    /**
+     * @param indices indices of states
+     * @return an unmodifiable set with the states with the given indices
+     */
+    Set<State> of(StateSet indices) {
+        Set<State> selected = new HashSet<>();
+        indices.forEach(index -> selected.add(get(index)));
+        return Collections.unmodifiableSet(selected);
+    }
+
+}
@@ -0,0 +1,110 @@
+package bait.automata;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import bait.collections.StateSet;
+
+/**
+ * The components of an automaton as read from one '.ba' source, before they are
+ * bound to an alphabet. The states and the labels are numbered in the order in
+ * which the parser meets them, the initial state first, and each edge is stored
+ * as three ints: its source, its label and its target. Only the identifiers of
+ * the states and the labels are strings, interned by the parser so that equal
+ * names share the same string.
+ */
+public final class ParsedAutomaton implements AutomatonSource {
+
+    private final String[] states;
+    private final String[] symbols;
+    private final int[] edges; // the source, label and target of each edge
+    private final int numberOfEdges;
+    private final StateSet finalStates; // null when the source lists none: all states are final
+
+    /**
+     * @param states        the identifiers of the states, by number, the initial
+     *                      state first, or no state if the source is empty
+     * @param symbols       the labels, by number
+     * @param edges         the source, label and target of each edge, in the
+     *                      first 3 * numberOfEdges entries
+     * @param numberOfEdges the number of edges, duplicates included
+     * @param finalStates   the numbers of the final states, or null if all the
+     *                      states are final
+     */
+    ParsedAutomaton(String[] states, String[] symbols, int[] edges, int numberOfEdges, StateSet finalStates) {
+        this.states = states;
+        this.symbols = symbols;
+        this.edges = edges;
+        this.numberOfEdges = numberOfEdges;
+        this.finalStates = finalStates;
+    }
+
+    /**
+     * @return the labels of the edges of the automaton
+     */
+    public Set<String> symbols() {
+        return Collections.unmodifiableSet(new HashSet<>(Arrays.asList(symbols)));
+    }
+
+    /**
+     * @return the alphabet made of the labels of the edges of the automaton
+     */
+    @Override
+    public Alphabet alphabet() {
+        return Alphabet.of(symbols());
+    }
+
+    /**
+     * @return the number of edge lines of the source, duplicates included
+     */
+    public int numberOfEdges() {
+        return numberOfEdges;
+    }
+
+    /**
+     * Sorts the encoded edges into the compressed sparse row format, so no object
+     * is created per edge. The State objects are created when they are first
+     * requested.
+     */
+    @Override
+    public BuchiAutomaton build(Alphabet alphabet) throws AutomatonBuilder.BuildError {
+        if (states.length == 0)
+            throw new AutomatonBuilder.BuildError("Initial state not specified");
+        int numberOfSymbols = alphabet.size();
+        int[] symbolIds = new int[symbols.length];
+        for (int i = 0; i < symbols.length; i++) {
+            Symbol symbol = alphabet.symbol(symbols[i]);
+            if (symbol == null)
+                throw new AutomatonBuilder.BuildError("Symbol " + symbols[i] + " is not in the alphabet");
+            symbolIds[i] = symbol.id();
+        }
+        long[] forward = new long[numberOfEdges];
+        long[] backward = new long[numberOfEdges];
+        for (int e = 0; e < numberOfEdges; e++) {
+            int from = edges[3 * e];
+            int symbol = symbolIds[edges[3 * e + 1]];
+            int to = edges[3 * e + 2];
+            forward[e] = AutomatonBuilder.edgeCode(from * numberOfSymbols + symbol, to);
+            backward[e] = AutomatonBuilder.edgeCode(to * numberOfSymbols + symbol, from);
+        }
+        BuchiAutomaton ba = new BuchiAutomaton();
+        ba.setAlphabet(alphabet);
+        ba.numberOfSymbols = numberOfSymbols;
+        ba.numberOfStates = states.length;
+        ba.finalStatesSet = finalStates != null ? finalStates : allStates();
+        AutomatonBuilder.setEdges(ba, forward, backward, numberOfEdges);
+        ba.lazyStates = new LazyStates(ba, index -> states[index]);
+        ba.initialState = ba.lazyStates.get(0);
+        return ba;
+    }
+
+    private StateSet allStates() {
+        StateSet.Builder all = new StateSet.Builder();
+        for (int index = 0; index < states.length; index++)
+            all.add(index);
+        return all.build();
+    }
+
+}
@@ -0,0 +1,251 @@
+package bait.automata;
+
+import java.util.Arrays;
+
+import bait.collections.StateSet;
+
+/**
+ * A forward simulation preorder between the states of an automaton: q simulates
+ * p iff every run from p can be mimicked by a run from q on the same word, so
+ * that the language of the automaton from p is a subset of the language from
+ * q. Two kinds of simulation are supported:
+ * <ul>
+ * <li>direct: whenever the run from p visits a final state, the run from q
+ * visits a final state at the same step;</li>
+ * <li>delayed: whenever the run from p visits a final state, the run from q
+ * visits a final state at the same step or later.</li>
+ * </ul>
+ * Direct simulation is contained in delayed simulation, and quotienting an
+ * automaton by the equivalence induced by either of them preserves its language.
+ */
+public final class Simulation {
+
+    public enum Kind {
+        DIRECT, DELAYED
+    }
+
+    private final Kind kind;
+    private final int numberOfStates;
+    // simulators[p] is the set of states q that simulate p, and simulated[q] is
+    // the set of states p that q simulates
+    private final StateSet[] simulators;
+    private final StateSet[] simulated;
+
+    private Simulation(Kind kind, int numberOfStates, StateSet[] simulators) {
+        this.kind = kind;
+        this.numberOfStates = numberOfStates;
+        this.simulators = simulators;
+        StateSet.Builder[] simulatedBuilders = new StateSet.Builder[numberOfStates];
+        for (int q = 0; q < numberOfStates; q++)
+            simulatedBuilders[q] = new StateSet.Builder();
+        for (int p = 0; p < numberOfStates; p++) {
+            int simulatedState = p;
+            simulators[p].forEach(q -> simulatedBuilders[q].add(simulatedState));
+        }
+        this.simulated = new StateSet[numberOfStates];
+        for (int q = 0; q < numberOfStates; q++)
+            simulated[q] = simulatedBuilders[q].build();
+    }
+
+    /**
+     * @param automaton the automaton
+     * @param kind      the kind of simulation
+     * @return the largest simulation of the given kind between the states of the
+     *         automaton
+     */
+    public static Simulation of(BuchiAutomaton automaton, Kind kind) {
+        if (kind == Kind.DIRECT)
+            return direct(automaton);
+        else
+            return delayed(automaton);
+    }
+
+    /**
+     * Computes the largest direct simulation as a greatest fixpoint, on rows of
+     * bits: the row of p holds the states that may still simulate p. For each
+     * symbol a and transition p-a->p', the states that simulate p must have an
+     * a-successor in the row of p', so the row of p is intersected with the
+     * a-predecessors of the row of p' until no row changes.
+     */
+    private static Simulation direct(BuchiAutomaton automaton) {
+        int n = automaton.numberOfStates();
+        int words = words(n);
+        long[][] rows = new long[n][words];
+        long[] finals = new long[words];
+        for (int s = 0; s < n; s++)
+            if (automaton.isFinal(s))
+                setBit(finals, s);
+        for (int p = 0; p < n; p++)
+            if (automaton.isFinal(p))
+                System.arraycopy(finals, 0, rows[p], 0, words);
+            else
+                for (int q = 0; q < n; q++)
+                    setBit(rows[p], q);
+        long[][] predecessorsOfRows = new long[n][];
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (int a = 0; a < automaton.numberOfSymbols; a++) {
+                for (int p = 0; p < n; p++)
+                    predecessorsOfRows[p] = null;
+                for (int p = 0; p < n; p++) {
+                    int end = automaton.successorsEnd(p, a);
+                    for (int i = automaton.successorsBegin(p, a); i < end; i++) {
+                        int successor = automaton.successor(i);
+                        if (predecessorsOfRows[successor] == null)
+                            predecessorsOfRows[successor] = predecessors(automaton, rows[successor], a);
+                        changed |= intersect(rows[p], predecessorsOfRows[successor]);
+                    }
+                }
+            }
+        }
+        return new Simulation(Kind.DIRECT, n, toStateSets(rows));
+    }
+
+    /**
+     * @return the set of states that reach one state of the set following the
+     *         symbol a
+     */
+    private static long[] predecessors(BuchiAutomaton automaton, long[] states, int a) {
+        long[] predecessors = new long[states.length];
+        for (int w = 0; w < states.length; w++)
+            for (long bits = states[w]; bits != 0; bits &= bits - 1) {
+                int s = (w << 6) + Long.numberOfTrailingZeros(bits);
+                int end = automaton.predecessorsEnd(s, a);
+                for (int i = automaton.predecessorsBegin(s, a); i < end; i++)
+                    setBit(predecessors, automaton.predecessor(i));
+            }
+        return predecessors;
+    }
+
+    /**
+     * Computes the largest delayed simulation by solving the delayed simulation
+     * game (see {@link DelayedSimulationGame}): q simulates p iff the duplicator
+     * wins from q against the spoiler from p, with an obligation pending iff p is
+     * final and q is not.
+     */
+    private static Simulation delayed(BuchiAutomaton automaton) {
+        int n = automaton.numberOfStates();
+        DelayedSimulationGame game = new DelayedSimulationGame(automaton);
+        game.solve();
+        StateSet[] simulators = new StateSet[n];
+        for (int p = 0; p < n; p++) {
+            StateSet.Builder row = new StateSet.Builder();
+            for (int q = 0; q < n; q++)
+                if (game.duplicatorWins(p, q))
+                    row.add(q);
+            simulators[p] = row.build();
+        }
+        return new Simulation(Kind.DELAYED, n, simulators);
+    }
+
+    public Kind kind() {
+        return kind;
+    }
+
+    /**
+     * @param q the index of a state
+     * @param p the index of a state
+     * @return true iff q simulates p
+     */
+    public boolean simulates(int q, int p) {
+        return simulators[p].contains(q);
+    }
+
+    /**
+     * @param p the index of a state
+     * @return the set of states that simulate p, which contains p
+     */
+    public StateSet simulators(int p) {
+        return simulators[p];
+    }
+
+    /**
+     * @param q the index of a state
+     * @return the set of states that q simulates, which contains q
+     */
+    public StateSet simulated(int q) {
+        return simulated[q];
+    }
+
+    /**
+     * @param states a set of states
+     * @return the set of states that are simulated by some state of the set. Since
+     *         the simulation is a preorder, every state of the first set is
+     *         simulated by a state of the second iff the downward closure of the
+     *         first is a subset of the downward closure of the second
+     */
+    public StateSet downwardClosure(StateSet states) {
+        StateSet.Builder closure = new StateSet.Builder();
+        states.forEach(q -> closure.addAll(simulated[q]));
+        return closure.build();
+    }
+
+    /**
+     * @return the number of pairs (p, q) such that q simulates p and p != q
+     */
+    public long numberOfNonTrivialPairs() {
+        long pairs = 0;
+        for (StateSet row : simulators)
+            pairs += row.size() - 1;
+        return pairs;
+    }
+
+    /**
+     * Numbers the classes of the equivalence induced by the simulation in the
+     * order of their first state, so that if no two states are equivalent each
+     * state is mapped to itself.
+     *
+     * @return for each state, the index of its class
+     */
+    public int[] equivalenceClasses() {
+        int[] classes = new int[numberOfStates];
+        Arrays.fill(classes, -1);
+        int numberOfClasses = 0;
+        for (int p = 0; p < numberOfStates; p++) {
+            if (classes[p] >= 0)
+                continue;
+            classes[p] = numberOfClasses;
+            StateSet simulatorsOfP = simulators[p];
+            for (int q = simulatorsOfP.next(p + 1); q >= 0; q = simulatorsOfP.next(q + 1))
+                if (classes[q] < 0 && simulates(p, q))
+                    classes[q] = numberOfClasses;
+            numberOfClasses++;
+        }
+        return classes;
+    }
+
+    private static StateSet[] toStateSets(long[][] rows) {
+        StateSet[] sets = new StateSet[rows.length];
+        for (int p = 0; p < rows.length; p++) {
+            StateSet.Builder set = new StateSet.Builder();
+            for (int w = 0; w < rows[p].length; w++)
+                for (long bits = rows[p][w]; bits != 0; bits &= bits - 1)
+                    set.add((w << 6) + Long.numberOfTrailingZeros(bits));
+            sets[p] = set.build();
+        }
+        return sets;
+    }
+
+    private static int words(int bits) {
+        return (bits + 63) >>> 6;
+    }
+
+    private static void setBit(long[] words, int bit) {
+        words[bit >>> 6] |= 1L << bit;
+    }
+
+    /**
+     * @return true iff the intersection removed some bit from the target
+     */
+    private static boolean intersect(long[] target, long[] other) {
+        boolean changed = false;
+        for (int w = 0; w < target.length; w++) {
+            long intersection = target[w] & other[w];
+            changed |= intersection != target[w];
+            target[w] = intersection;
+        }
+        return changed;
+    }
+
+}
@@ -4,22 +4,28 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
-import java.util.Objects;
 
 import bait.collections.Pair;
 
+/**
+ * One state of a Büchi automaton. The transitions are stored by the automaton
+ * (see {@link BuchiAutomaton}), so the methods of this class that return sets of
+ * states allocate them from the automaton's transition arrays: performance
+ * critical code should use the index-based accessors of the automaton instead.
+ */
 public final class State {
 
     private final String identifier;
-    private final Set<Pair<State, Symbol>> predecessors;
-    private final Map<Symbol, Set<State>> successors;
+    private BuchiAutomaton automaton;
     private int index;
     private boolean isFinal;
 
     public State(String identifier) {
         this.identifier = identifier;
-        this.predecessors = new HashSet<>();
-        this.successors = new HashMap<>();
+    }
+
+    void setAutomaton(BuchiAutomaton automaton) {
+        this.automaton = automaton;
     }
 
     public void setIndex(int index) {
@@ -38,26 +44,33 @@ public final class State {
         return isFinal;
     }
 
+    /**
+     * @return the set of pairs (p,a) such that p-a->this is a transition of the
+     *         automaton
+     */
     public Set<Pair<State, Symbol>> predecessors() {
+        Set<Pair<State, Symbol>> predecessors = new HashSet<>();
+        for (Symbol symbol : automaton.alphabet()) {
+            int end = automaton.predecessorsEnd(index, symbol.id());
+            for (int i = automaton.predecessorsBegin(index, symbol.id()); i < end; i++)
+                predecessors.add(Pair.of(automaton.state(automaton.predecessor(i)), symbol));
+        }
         return predecessors;
     }
 
+    /**
+     * @return the map that associates each symbol with the set of states that this
+     *         state can reach following it. Symbols that lead nowhere are not in
+     *         the map.
+     */
     public Map<Symbol, Set<State>> successors() {
-        return successors;
-    }
-
-    public void addPredecessor(State predecessor, Symbol symbol) {
-        predecessors.add(Pair.of(predecessor, symbol));
-    }
-
-    public void addSuccessor(State successor, Symbol symbol) {
-        if (successors.containsKey(symbol)) {
-            successors.get(symbol).add(successor);
-        } else {
-            Set<State> singleton = new HashSet<>();
-            singleton.add(successor);
-            successors.put(symbol, singleton);
+        Map<Symbol, Set<State>> successors = new HashMap<>();
+        for (Symbol symbol : automaton.alphabet()) {
+            Set<State> post = post(symbol);
+            if (!post.isEmpty())
+                successors.put(symbol, post);
         }
+        return successors;
     }
 
     /**
@@ -65,8 +78,11 @@ public final class State {
      * @return the set of states that this state can reach following the symbol
      */
     public Set<State> post(Symbol symbol) {
-        Set<State> post = successors.get(symbol);
-        return Objects.requireNonNullElseGet(post, HashSet::new);
+        Set<State> post = new HashSet<>();
+        int end = automaton.successorsEnd(index, symbol.id());
+        for (int i = automaton.successorsBegin(index, symbol.id()); i < end; i++)
+            post.add(automaton.state(automaton.successor(i)));
+        return post;
     }
 
     /**
@@ -74,8 +90,9 @@ public final class State {
      */
     public Set<State> post() {
         Set<State> allSuccessors = new HashSet<>();
-        for (Map.Entry<Symbol, Set<State>> entry : this.successors.entrySet())
-            allSuccessors.addAll(entry.getValue());
+        int end = automaton.successorsEnd(index);
+        for (int i = automaton.successorsBegin(index); i < end; i++)
+            allSuccessors.add(automaton.state(automaton.successor(i)));
         return allSuccessors;
     }
 
@@ -98,19 +115,6 @@ public final class State {
         }
     }
 
-    /**
-     * @param states input set of states
-     * @param symbol the symbol to follow from the set of states
-     * @return the set of states that can be reached from one state in the input set
-     *         following the symbol
-     */
-    public static Set<State> post(Set<State> states, Symbol symbol) {
-        Set<State> successors = new HashSet<>();
-        for (State state : states)
-            successors.addAll(state.post(symbol));
-        return successors;
-    }
-
     /**
      * @param states input set of states
      * @return the set of states that can be reached from one state in the input set
@@ -0,0 +1,141 @@
+package bait.automata;
+
+import bait.collections.StateSet;
+
+/**
+ * The strongly connected components of the graph of the transitions of an
+ * automaton, computed with an iterative version of Tarjan's algorithm. The
+ * components are numbered in reverse topological order: if there is a
+ * transition from a state of the component c to a state of the component d,
+ * then c >= d.
+ */
+public final class StronglyConnectedComponents {
+
+    private final int[] component;
+    private final int numberOfComponents;
+    // the states of the component c are members[membersOffsets[c]] to
+    // members[membersOffsets[c + 1] - 1]
+    private final int[] membersOffsets;
+    private final int[] members;
+    private final boolean[] cyclic;
+
+    public StronglyConnectedComponents(BuchiAutomaton automaton) {
+        int n = automaton.numberOfStates();
+        component = new int[n];
+        int[] lowLink = new int[n];
+        int[] discovery = new int[n]; // 0 means not yet visited
+        int[] nextSuccessor = new int[n];
+        int[] callStack = new int[n];
+        int[] tarjanStack = new int[n];
+        boolean[] onTarjanStack = new boolean[n];
+        int callStackSize = 0;
+        int tarjanStackSize = 0;
+        int time = 0;
+        int components = 0;
+        for (int root = 0; root < n; root++) {
+            if (discovery[root] != 0)
+                continue;
+            callStack[callStackSize++] = root;
+            discovery[root] = lowLink[root] = ++time;
+            nextSuccessor[root] = automaton.successorsBegin(root);
+            tarjanStack[tarjanStackSize++] = root;
+            onTarjanStack[root] = true;
+            while (callStackSize > 0) {
+                int s = callStack[callStackSize - 1];
+                if (nextSuccessor[s] < automaton.successorsEnd(s)) {
+                    int t = automaton.successor(nextSuccessor[s]++);
+                    if (discovery[t] == 0) {
+                        callStack[callStackSize++] = t;
+                        discovery[t] = lowLink[t] = ++time;
+                        nextSuccessor[t] = automaton.successorsBegin(t);
+                        tarjanStack[tarjanStackSize++] = t;
+                        onTarjanStack[t] = true;
+                    } else if (onTarjanStack[t])
+                        lowLink[s] = Math.min(lowLink[s], discovery[t]);
+                    continue;
+                }
+                callStackSize--;
+                if (callStackSize > 0) {
+                    int parent = callStack[callStackSize - 1];
+                    lowLink[parent] = Math.min(lowLink[parent], lowLink[s]);
+                }
+                if (lowLink[s] == discovery[s]) {
+                    int t;
+                    do {
+                        t = tarjanStack[--tarjanStackSize];
+                        onTarjanStack[t] = false;
+                        component[t] = components;
+                    } while (t != s);
+                    components++;
+                }
+            }
+        }
+        numberOfComponents = components;
+        membersOffsets = new int[components + 1];
+        for (int s = 0; s < n; s++)
+            membersOffsets[component[s] + 1]++;
+        for (int c = 0; c < components; c++)
+            membersOffsets[c + 1] += membersOffsets[c];
+        members = new int[n];
+        int[] filled = new int[components];
+        for (int s = 0; s < n; s++)
+            members[membersOffsets[component[s]] + filled[component[s]]++] = s;
+        cyclic = new boolean[components];
+        for (int s = 0; s < n; s++) {
+            int end = automaton.successorsEnd(s);
+            for (int i = automaton.successorsBegin(s); i < end; i++)
+                if (component[automaton.successor(i)] == component[s])
+                    cyclic[component[s]] = true;
+        }
+    }
+
+    public int numberOfComponents() {
+        return numberOfComponents;
+    }
+
+    /**
+     * @param state the index of a state
+     * @return the component of the state
+     */
+    public int component(int state) {
+        return component[state];
+    }
+
+    /**
+     * @param component a component
+     * @return the number of states in the component
+     */
+    public int size(int component) {
+        return membersOffsets[component + 1] - membersOffsets[component];
+    }
+
+    /**
+     * @param component a component
+     * @param i         a number between 0 and the size of the component (excluded)
+     * @return the index of the i-th state of the component
+     */
+    public int member(int component, int i) {
+        return members[membersOffsets[component] + i];
+    }
+
+    /**
+     * @param component a component
+     * @return the set of indices of the states of the component
+     */
+    public StateSet members(int component) {
+        StateSet.Builder states = new StateSet.Builder();
+        for (int i = membersOffsets[component]; i < membersOffsets[component + 1]; i++)
+            states.add(members[i]);
+        return states.build();
+    }
+
+    /**
+     * @param component a component
+     * @return true iff the component contains a cycle, that is, it has more than
+     *         one state or its state has a self loop
+     */
+    public boolean isCyclic(int component) {
+        return cyclic[component];
+    }
+
+}
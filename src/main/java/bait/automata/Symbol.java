@@ -3,9 +3,26 @@ package bait.automata;
 public final class Symbol {
 
     private final String stringRepresentation;
+    private final int id;
 
-    public Symbol(String string) {
+    /**
+     * Symbols are created only by alphabets, which intern them: the id of a
+     * symbol is its position in the alphabet that created it.
+     *
+     * @param string the string representation of the symbol
+     * @param id     the position of the symbol in its alphabet
+     */
+    Symbol(String string, int id) {
         this.stringRepresentation = string;
+        this.id = id;
+    }
+
+    /**
+     * @return the position of this symbol in its alphabet, between 0 and the size
+     *         of the alphabet (excluded)
+     */
+    public int id() {
+        return id;
     }
 
     @Override
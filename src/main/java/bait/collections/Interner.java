@@ -0,0 +1,35 @@
+package bait.collections;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Hash-consing of immutable values: equal values are mapped to the same
+ * canonical instance, so that afterwards they are equal by identity and the
+ * equals methods of the values return at their first check. It is safe to
+ * share between threads.
+ *
+ * @param <T> type of the values, which must be immutable
+ */
+public final class Interner<T> {
+
+    private final Map<T, T> canonicalValues = new ConcurrentHashMap<>();
+
+    /**
+     * @param value the value
+     * @return the canonical instance equal to the value, which is the value itself
+     *         if no equal value was interned before
+     */
+    public T intern(T value) {
+        T canonicalValue = canonicalValues.putIfAbsent(value, value);
+        return canonicalValue == null ? value : canonicalValue;
+    }
+
+    /**
+     * @return the number of distinct values interned
+     */
+    public int size() {
+        return canonicalValues.size();
+    }
+
+}
@@ -0,0 +1,116 @@
+package bait.collections;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Bounded map that evicts the least recently used entry when full. It is safe
+ * to share between threads, and it counts hits and misses of computeIfAbsent and
+ * putIfAbsent.
+ *
+ * @param <K> type of the keys
+ * @param <V> type of the values
+ */
+public final class LruCache<K, V> {
+
+    private final int capacity;
+    private final Map<K, V> entries;
+    private long hits = 0;
+    private long misses = 0;
+
+    /**
+     * @param capacity the maximum number of entries in the cache
+     */
+    public LruCache(int capacity) {
+        this.capacity = capacity;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                return size() > LruCache.this.capacity;
+            }
+        };
+    }
+
+    /**
+     * Returns the value associated with the key, computing it with the given
+     * function if it is not in the cache. The function is not called while holding
+     * the lock of the cache, so two threads can compute the same value at the same
+     * time: the function must be side-effect free.
+     *
+     * @param key      the key
+     * @param function the function that computes the value of the key
+     * @return the value associated with the key
+     */
+    public V computeIfAbsent(K key, Function<K, V> function) {
+        synchronized (this) {
+            V value = entries.get(key);
+            if (value != null) {
+                hits++;
+                return value;
+            }
+            misses++;
+        }
+        V value = function.apply(key);
+        synchronized (this) {
+            entries.put(key, value);
+        }
+        return value;
+    }
+
+    /**
+     * Associates the value with the key if the key is not in the cache, and
+     * counts a hit if it is and a miss otherwise.
+     *
+     * @return the value already associated with the key, or null if there was
+     *         none
+     */
+    public synchronized V putIfAbsent(K key, V value) {
+        V present = entries.get(key);
+        if (present != null) {
+            hits++;
+            return present;
+        }
+        misses++;
+        entries.put(key, value);
+        return null;
+    }
+
+    /**
+     * Removes the key if it is associated with the given value.
+     */
+    public synchronized void remove(K key, V value) {
+        entries.remove(key, value);
+    }
+
+    public synchronized V get(K key) {
+        return entries.get(key);
+    }
+
+    public synchronized void put(K key, V value) {
+        entries.put(key, value);
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    public synchronized long hits() {
+        return hits;
+    }
+
+    public synchronized long misses() {
+        return misses;
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+}
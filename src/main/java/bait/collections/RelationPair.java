@@ -0,0 +1,77 @@
+package bait.collections;
+
+/**
+ * Immutable pair of relations, the type of the elements of the Y vectors. The
+ * hash code, the weight and the signature used by the antichains are computed
+ * once, when the pair is created.
+ */
+public final class RelationPair {
+
+    private final StateRelation fst;
+    private final StateRelation snd;
+    private final int hash;
+    private final long signature;
+
+    public static RelationPair of(StateRelation fst, StateRelation snd) {
+        return new RelationPair(fst, snd);
+    }
+
+    private RelationPair(StateRelation fst, StateRelation snd) {
+        this.fst = fst;
+        this.snd = snd;
+        this.hash = 31 * fst.hashCode() + snd.hashCode();
+        // the two components are rotated apart, so that their bits collide less
+        this.signature = fst.signature() | Long.rotateLeft(snd.signature(), 32);
+    }
+
+    public StateRelation fst() {
+        return fst;
+    }
+
+    public StateRelation snd() {
+        return snd;
+    }
+
+    /**
+     * @return the total number of pairs of states in the two relations
+     */
+    public int size() {
+        return fst.size() + snd.size();
+    }
+
+    /**
+     * @return a 64 bits summary of the two relations, such that if this pair is
+     *         component-wise a subset of another pair, then its signature is a
+     *         subset of the signature of the other pair
+     */
+    public long signature() {
+        return signature;
+    }
+
+    public boolean isSubsetOf(RelationPair other) {
+        return fst.isSubsetOf(other.fst) && snd.isSubsetOf(other.snd);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj)
+            return true;
+        if (obj == null)
+            return false;
+        if (getClass() != obj.getClass())
+            return false;
+        RelationPair other = (RelationPair) obj;
+        return hash == other.hash && fst.equals(other.fst) && snd.equals(other.snd);
+    }
+
+    @Override
+    public String toString() {
+        return "(" + fst + ',' + snd + ')';
+    }
+
+}
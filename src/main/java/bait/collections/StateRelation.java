@@ -0,0 +1,194 @@
+package bait.collections;
+
+import java.util.Arrays;
+
+/**
+ * Immutable binary relation over the states of one automaton, represented as a
+ * boolean matrix indexed by the indices of the states. Each row is a
+ * {@link StateSet}, so rows are dense bitsets, while empty rows all share
+ * {@link StateSet#EMPTY} and trailing empty rows are not stored at all, so that
+ * relations with few related states stay small.
+ */
+public final class StateRelation {
+
+    public static final StateRelation EMPTY = new StateRelation(new StateSet[0]);
+
+    // rows[i] is the set of states related to the state with index i
+    private final StateSet[] rows;
+    private final int hash;
+    private final int size;
+    private final long signature;
+
+    private StateRelation(StateSet[] rows) {
+        this.rows = rows;
+        this.hash = Arrays.hashCode(rows);
+        int numberOfPairs = 0;
+        long foldedRows = 0;
+        for (int i = 0; i < rows.length; i++) {
+            numberOfPairs += rows[i].size();
+            foldedRows |= Long.rotateLeft(rows[i].signature(), i);
+        }
+        this.size = numberOfPairs;
+        this.signature = foldedRows;
+    }
+
+    /**
+     * @param index index of a state
+     * @return the set of states related to the state with the given index
+     */
+    public StateSet row(int index) {
+        return index < rows.length ? rows[index] : StateSet.EMPTY;
+    }
+
+    /**
+     * @return one plus the greatest index of a state related to some state, or 0
+     *         if the relation is empty
+     */
+    public int numberOfRows() {
+        return rows.length;
+    }
+
+    public boolean contains(int from, int to) {
+        return row(from).contains(to);
+    }
+
+    /**
+     * @return the number of pairs in the relation
+     */
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * The signature is the bitwise or of the signatures of the rows, each rotated
+     * by the index of its row. As for {@link StateSet#signature()}, if this
+     * relation is a subset of another relation then its signature is a subset of
+     * the signature of the other relation.
+     *
+     * @return a 64 bits summary of the relation
+     */
+    public long signature() {
+        return signature;
+    }
+
+    /**
+     * @param other the other relation
+     * @return true iff every pair in this relation is also in the other relation
+     */
+    public boolean isSubsetOf(StateRelation other) {
+        if (size > other.size || rows.length > other.rows.length)
+            return false;
+        for (int i = 0; i < rows.length; i++)
+            if (!rows[i].isSubsetOf(other.rows[i]))
+                return false;
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj)
+            return true;
+        if (obj == null)
+            return false;
+        if (getClass() != obj.getClass())
+            return false;
+        StateRelation other = (StateRelation) obj;
+        return hash == other.hash && size == other.size && Arrays.equals(rows, other.rows);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("{");
+        for (int i = 0; i < rows.length; i++)
+            for (int j = rows[i].next(0); j >= 0; j = rows[i].next(j + 1)) {
+                if (builder.length() > 1)
+                    builder.append(", ");
+                builder.append('(').append(i).append(',').append(j).append(')');
+            }
+        return builder.append('}').toString();
+    }
+
+    /**
+     * Mutable accumulator used to build relations row by row.
+     */
+    public static final class Builder {
+
+        private StateSet.Builder[] rows;
+
+        public Builder() {
+            rows = new StateSet.Builder[0];
+        }
+
+        /**
+         * @param index index of a state
+         * @return the mutable row of the state with the given index
+         */
+        public StateSet.Builder row(int index) {
+            ensureCapacity(index + 1);
+            if (rows[index] == null)
+                rows[index] = new StateSet.Builder();
+            return rows[index];
+        }
+
+        /**
+         * @return one plus the greatest index of a row that may be non-empty
+         */
+        public int numberOfRows() {
+            return rows.length;
+        }
+
+        /**
+         * @param index index of a state
+         * @return true iff the row of the state with the given index is certainly
+         *         empty
+         */
+        public boolean rowIsEmpty(int index) {
+            return index >= rows.length || rows[index] == null;
+        }
+
+        public Builder add(int from, int to) {
+            row(from).add(to);
+            return this;
+        }
+
+        public Builder addAll(int from, StateSet to) {
+            if (!to.isEmpty())
+                row(from).addAll(to);
+            return this;
+        }
+
+        public Builder addAll(StateRelation relation) {
+            for (int i = 0; i < relation.rows.length; i++)
+                addAll(i, relation.rows[i]);
+            return this;
+        }
+
+        public StateRelation build() {
+            StateSet[] builtRows = new StateSet[rows.length];
+            int length = 0;
+            for (int i = 0; i < rows.length; i++) {
+                builtRows[i] = rows[i] == null ? StateSet.EMPTY : rows[i].build();
+                if (!builtRows[i].isEmpty())
+                    length = i + 1;
+            }
+            if (length == 0)
+                return EMPTY;
+            return new StateRelation(Arrays.copyOf(builtRows, length));
+        }
+
+        private void ensureCapacity(int rowsRequired) {
+            if (rows.length < rowsRequired)
+                rows = Arrays.copyOf(rows, Math.max(2 * rows.length, rowsRequired));
+        }
+    }
+
+}
@@ -0,0 +1,247 @@
+package bait.collections;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * Immutable set of states represented as a bitset: the i-th bit is set iff the
+ * state with index i (see {@link bait.automata.State#getIntIndex()}) belongs to
+ * the set. Subset and intersection tests are computed word by word, and the
+ * hash code and the cardinality are computed once, when the set is built.
+ */
+public final class StateSet {
+
+    public static final StateSet EMPTY = new StateSet(new long[0]);
+
+    private static final int ADDRESS_BITS_PER_WORD = 6;
+
+    // trailing zero words are always trimmed, so that equal sets have equal arrays
+    private final long[] words;
+    private final int hash;
+    private final int size;
+    private final long signature;
+
+    private StateSet(long[] words) {
+        this.words = words;
+        this.hash = Arrays.hashCode(words);
+        int cardinality = 0;
+        long foldedWords = 0;
+        for (long word : words) {
+            cardinality += Long.bitCount(word);
+            foldedWords |= word;
+        }
+        this.size = cardinality;
+        this.signature = foldedWords;
+    }
+
+    /**
+     * @param index index of the state
+     * @return the set containing only the state with the given index
+     */
+    public static StateSet singleton(int index) {
+        return new Builder().add(index).build();
+    }
+
+    /**
+     * @param indices indices of the states
+     * @return the set containing exactly the states with the given indices
+     */
+    public static StateSet of(int... indices) {
+        Builder builder = new Builder();
+        for (int index : indices)
+            builder.add(index);
+        return builder.build();
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * The signature is the bitwise or of the words of the set, that is the set of
+     * the indices of the states modulo 64. If this set is a subset of another set,
+     * then its signature is a subset of the signature of the other set, so
+     * disjoint signature bits rule out inclusion with one operation.
+     *
+     * @return a 64 bits summary of the set
+     */
+    public long signature() {
+        return signature;
+    }
+
+    public boolean contains(int index) {
+        int wordIndex = index >>> ADDRESS_BITS_PER_WORD;
+        return wordIndex < words.length && (words[wordIndex] & (1L << index)) != 0;
+    }
+
+    /**
+     * @param other the other set
+     * @return true iff every state in this set is also in the other set
+     */
+    public boolean isSubsetOf(StateSet other) {
+        if (size > other.size || words.length > other.words.length)
+            return false;
+        for (int i = 0; i < words.length; i++)
+            if ((words[i] & ~other.words[i]) != 0)
+                return false;
+        return true;
+    }
+
+    /**
+     * @param other the other set
+     * @return true iff the two sets have at least one state in common
+     */
+    public boolean intersects(StateSet other) {
+        int length = Math.min(words.length, other.words.length);
+        for (int i = 0; i < length; i++)
+            if ((words[i] & other.words[i]) != 0)
+                return true;
+        return false;
+    }
+
+    /**
+     * @param other the other set
+     * @return the intersection of the two sets
+     */
+    public StateSet intersection(StateSet other) {
+        int length = Math.min(words.length, other.words.length);
+        while (length > 0 && (words[length - 1] & other.words[length - 1]) == 0)
+            length--;
+        if (length == 0)
+            return EMPTY;
+        long[] intersection = new long[length];
+        for (int i = 0; i < length; i++)
+            intersection[i] = words[i] & other.words[i];
+        return new StateSet(intersection);
+    }
+
+    /**
+     * @param other the other set
+     * @return the union of the two sets
+     */
+    public StateSet union(StateSet other) {
+        return new Builder().addAll(this).addAll(other).build();
+    }
+
+    /**
+     * Iterates over the set in the same fashion as {@link java.util.BitSet}:
+     * {@code for (int i = s.next(0); i >= 0; i = s.next(i + 1))}.
+     *
+     * @param fromIndex the index to start searching from (inclusive)
+     * @return the smallest index in the set that is greater or equal than
+     *         fromIndex, or -1 if there is no such index
+     */
+    public int next(int fromIndex) {
+        int wordIndex = fromIndex >>> ADDRESS_BITS_PER_WORD;
+        if (wordIndex >= words.length)
+            return -1;
+        long word = words[wordIndex] & (-1L << fromIndex);
+        while (true) {
+            if (word != 0)
+                return (wordIndex << ADDRESS_BITS_PER_WORD) + Long.numberOfTrailingZeros(word);
+            if (++wordIndex == words.length)
+                return -1;
+            word = words[wordIndex];
+        }
+    }
+
+    /**
+     * @param action the action to perform on the index of each state in the set,
+     *               in increasing order
+     */
+    public void forEach(IntConsumer action) {
+        for (int i = 0; i < words.length; i++) {
+            long word = words[i];
+            while (word != 0) {
+                action.accept((i << ADDRESS_BITS_PER_WORD) + Long.numberOfTrailingZeros(word));
+                word &= word - 1;
+            }
+        }
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj)
+            return true;
+        if (obj == null)
+            return false;
+        if (getClass() != obj.getClass())
+            return false;
+        StateSet other = (StateSet) obj;
+        return hash == other.hash && size == other.size && Arrays.equals(words, other.words);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("{");
+        for (int i = next(0); i >= 0; i = next(i + 1)) {
+            if (builder.length() > 1)
+                builder.append(", ");
+            builder.append(i);
+        }
+        return builder.append('}').toString();
+    }
+
+    /**
+     * Mutable accumulator used to build state sets without allocating one
+     * intermediate set for each added state.
+     */
+    public static final class Builder {
+
+        private long[] words;
+
+        public Builder() {
+            words = new long[1];
+        }
+
+        public Builder add(int index) {
+            int wordIndex = index >>> ADDRESS_BITS_PER_WORD;
+            ensureCapacity(wordIndex + 1);
+            words[wordIndex] |= 1L << index;
+            return this;
+        }
+
+        public Builder addAll(StateSet states) {
+            ensureCapacity(states.words.length);
+            for (int i = 0; i < states.words.length; i++)
+                words[i] |= states.words[i];
+            return this;
+        }
+
+        public Builder addAll(Builder states) {
+            ensureCapacity(states.words.length);
+            for (int i = 0; i < states.words.length; i++)
+                words[i] |= states.words[i];
+            return this;
+        }
+
+        public boolean contains(int index) {
+            int wordIndex = index >>> ADDRESS_BITS_PER_WORD;
+            return wordIndex < words.length && (words[wordIndex] & (1L << index)) != 0;
+        }
+
+        public StateSet build() {
+            int length = words.length;
+            while (length > 0 && words[length - 1] == 0)
+                length--;
+            if (length == 0)
+                return EMPTY;
+            return new StateSet(Arrays.copyOf(words, length));
+        }
+
+        private void ensureCapacity(int wordsRequired) {
+            if (words.length < wordsRequired)
+                words = Arrays.copyOf(words, Math.max(2 * words.length, wordsRequired));
+        }
+    }
+
+}
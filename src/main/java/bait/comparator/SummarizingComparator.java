@@ -0,0 +1,26 @@
+package bait.comparator;
+
+/**
+ * Partial comparator that can summarize each element with a weight and a 64
+ * bits signature, such that t1 <= t2 implies weight(t1) <= weight(t2) and that
+ * every bit set in signature(t1) is set in signature(t2). The summaries let an
+ * antichain skip, without calling lesserOrEqual, the elements that cannot be
+ * comparable with a given one.
+ *
+ * @param <T> type of the elements
+ */
+public interface SummarizingComparator<T> extends PartialComparator<T> {
+
+    /**
+     * @param t the element
+     * @return a non-negative weight that is monotone with respect to the order
+     */
+    int weight(T t);
+
+    /**
+     * @param t the element
+     * @return a set of bits that is monotone with respect to the order
+     */
+    long signature(T t);
+
+}
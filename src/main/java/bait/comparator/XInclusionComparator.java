@@ -1,14 +1,22 @@
 package bait.comparator;
 
-import java.util.Set;
+import bait.collections.StateSet;
 
-import bait.automata.State;
+public final class XInclusionComparator implements SummarizingComparator<StateSet> {
 
-public final class XInclusionComparator implements PartialComparator<Set<State>> {
+    @Override
+    public boolean lesserOrEqual(StateSet t1, StateSet t2) {
+        return t1.isSubsetOf(t2);
+    }
+
+    @Override
+    public int weight(StateSet t) {
+        return t.size();
+    }
 
     @Override
-    public boolean lesserOrEqual(Set<State> t1, Set<State> t2) {
-        return t2.containsAll(t1);
+    public long signature(StateSet t) {
+        return t.signature();
     }
 
 }
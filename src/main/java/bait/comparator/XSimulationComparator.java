@@ -0,0 +1,45 @@
+package bait.comparator;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import bait.automata.Simulation;
+import bait.collections.StateSet;
+
+/**
+ * Compares the sets of states of B using a direct simulation on B: t1 <= t2 iff
+ * every state of t1 is simulated by some state of t2, that is, iff t1 is a
+ * subset of the downward closure of t2. This order is coarser than set
+ * inclusion, so the antichains keep fewer elements. Weight and signature are
+ * the ones of the downward closure, which is monotone. The closures are cached,
+ * and the comparator is safe to share between threads.
+ */
+public final class XSimulationComparator implements SummarizingComparator<StateSet> {
+
+    private final Simulation simulation;
+    private final Map<StateSet, StateSet> closures = new ConcurrentHashMap<>();
+
+    public XSimulationComparator(Simulation simulation) {
+        this.simulation = simulation;
+    }
+
+    @Override
+    public boolean lesserOrEqual(StateSet t1, StateSet t2) {
+        return t1.isSubsetOf(closure(t2));
+    }
+
+    @Override
+    public int weight(StateSet t) {
+        return closure(t).size();
+    }
+
+    @Override
+    public long signature(StateSet t) {
+        return closure(t).signature();
+    }
+
+    private StateSet closure(StateSet t) {
+        return closures.computeIfAbsent(t, simulation::downwardClosure);
+    }
+
+}
@@ -1,18 +1,22 @@
 package bait.comparator;
 
-import java.util.Map;
-import java.util.Set;
+import bait.collections.RelationPair;
 
-import bait.automata.State;
-import bait.collections.Pair;
-import bait.utility.Algorithms;
+public final class YInclusionComparator implements SummarizingComparator<RelationPair> {
 
-public final class YInclusionComparator implements PartialComparator<Pair<Map<State, Set<State>>, Map<State, Set<State>>>> {
+    @Override
+    public boolean lesserOrEqual(RelationPair t1, RelationPair t2) {
+        return t1.isSubsetOf(t2);
+    }
+
+    @Override
+    public int weight(RelationPair t) {
+        return t.size();
+    }
 
     @Override
-    public boolean lesserOrEqual(Pair<Map<State, Set<State>>, Map<State, Set<State>>> t1,
-            Pair<Map<State, Set<State>>, Map<State, Set<State>>> t2) {
-        return Algorithms.isSubset(t1.fst(), t2.fst()) && Algorithms.isSubset(t1.snd(), t2.snd());
+    public long signature(RelationPair t) {
+        return t.signature();
     }
 
 }
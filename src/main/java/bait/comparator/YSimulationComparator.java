@@ -0,0 +1,59 @@
+package bait.comparator;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import bait.automata.Simulation;
+import bait.collections.RelationPair;
+import bait.collections.StateRelation;
+import bait.collections.StateSet;
+
+/**
+ * Compares the pairs of relations over the states of B using a direct
+ * simulation on B: t1 <= t2 iff for both components, for each pair (p, q) of
+ * the relation of t1 there is a pair (p, q') of the relation of t2 such that q'
+ * simulates q. Equivalently, each row of t1 is a subset of the downward closure
+ * of the same row of t2. Weight and signature are the ones of the row-wise
+ * downward closure. The closures are cached, and the comparator is safe to
+ * share between threads.
+ */
+public final class YSimulationComparator implements SummarizingComparator<RelationPair> {
+
+    private final Simulation simulation;
+    private final Map<RelationPair, RelationPair> closures = new ConcurrentHashMap<>();
+    private final Map<StateSet, StateSet> rowsClosures = new ConcurrentHashMap<>();
+
+    public YSimulationComparator(Simulation simulation) {
+        this.simulation = simulation;
+    }
+
+    @Override
+    public boolean lesserOrEqual(RelationPair t1, RelationPair t2) {
+        return t1.isSubsetOf(closure(t2));
+    }
+
+    @Override
+    public int weight(RelationPair t) {
+        return closure(t).size();
+    }
+
+    @Override
+    public long signature(RelationPair t) {
+        return closure(t).signature();
+    }
+
+    private RelationPair closure(RelationPair t) {
+        return closures.computeIfAbsent(t, pair -> RelationPair.of(closure(pair.fst()), closure(pair.snd())));
+    }
+
+    private StateRelation closure(StateRelation relation) {
+        StateRelation.Builder closure = new StateRelation.Builder();
+        for (int p = 0; p < relation.numberOfRows(); p++) {
+            StateSet row = relation.row(p);
+            if (!row.isEmpty())
+                closure.addAll(p, rowsClosures.computeIfAbsent(row, simulation::downwardClosure));
+        }
+        return closure.build();
+    }
+
+}
@@ -0,0 +1,103 @@
+package bait.preprocessing;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import bait.automata.AutomatonBuilder;
+import bait.automata.BuchiAutomaton;
+import bait.utility.Args;
+import bait.utility.Timer;
+
+/**
+ * Applies the reductions enabled by the arguments, in order, to the automata
+ * before the inclusion check, and keeps a report of what each of them removed,
+ * if anything.
+ */
+public final class Preprocessor {
+
+    private final List<Reduction> reductions = new ArrayList<>();
+    private final List<String> report = new ArrayList<>();
+    private final Timer timer = new Timer();
+    private final boolean reportRemovedStates;
+
+    public Preprocessor(Args args) {
+        if (args.trim())
+            reductions.add(new UselessStatesTrimming());
+        if (args.quotient() != null)
+            reductions.add(new SimulationQuotient(args.quotient()));
+        reportRemovedStates = args.veryVerboseDebug();
+    }
+
+    /**
+     * @return the names of the enabled reductions, in the order in which they are
+     *         applied. Two preprocessors with the same names reduce each
+     *         automaton in the same way
+     */
+    public List<String> reductionsNames() {
+        List<String> names = new ArrayList<>();
+        for (Reduction reduction : reductions)
+            names.add(reduction.name());
+        return names;
+    }
+
+    /**
+     * @param automaton the automaton
+     * @param name      the name of the automaton in the report
+     * @return the automaton reduced by all the enabled reductions, which has the
+     *         same language
+     */
+    public BuchiAutomaton preprocess(BuchiAutomaton automaton, String name) {
+        timer.start();
+        for (Reduction reduction : reductions)
+            automaton = reduce(automaton, name, reduction);
+        timer.stop();
+        return automaton;
+    }
+
+    private BuchiAutomaton reduce(BuchiAutomaton automaton, String name, Reduction reduction) {
+        int[] mapping = reduction.mapping(automaton);
+        int numberOfImages = 0;
+        for (int image : mapping)
+            numberOfImages = Math.max(numberOfImages, image + 1);
+        if (numberOfImages == automaton.numberOfStates())
+            return automaton;
+        report.add(reduction.name() + " shrank " + name + " from " + automaton.numberOfStates() + " to "
+                + numberOfImages + " states");
+        if (reportRemovedStates)
+            report.add("States of " + name + " removed or merged into other states: "
+                    + removedStates(automaton, mapping, numberOfImages));
+        return AutomatonBuilder.image(automaton, mapping);
+    }
+
+    /**
+     * @return the identifiers of the states that are removed, or whose image is
+     *         the image of a state that comes before them
+     */
+    private static List<String> removedStates(BuchiAutomaton automaton, int[] mapping, int numberOfImages) {
+        List<String> removed = new ArrayList<>();
+        boolean[] imageTaken = new boolean[numberOfImages];
+        for (int s = 0; s < mapping.length; s++) {
+            if (mapping[s] >= 0 && !imageTaken[mapping[s]])
+                imageTaken[mapping[s]] = true;
+            else
+                removed.add(automaton.state(s).toString());
+        }
+        return removed;
+    }
+
+    /**
+     * @return one line for each reduction that removed states of an automaton
+     */
+    public List<String> report() {
+        return Collections.unmodifiableList(report);
+    }
+
+    /**
+     * @return the time spent in the reductions in milliseconds
+     */
+    public long getRuntime() {
+        return timer.getMeasuredTime();
+    }
+
+}
@@ -0,0 +1,25 @@
+package bait.preprocessing;
+
+import bait.automata.BuchiAutomaton;
+
+/**
+ * One step of the preprocessing of the automata: a map of the states of an
+ * automaton such that the image of the automaton through the map (see
+ * {@link bait.automata.AutomatonBuilder#image}) has the same language.
+ */
+public interface Reduction {
+
+    /**
+     * @return the name of the reduction, used in the reports
+     */
+    String name();
+
+    /**
+     * @param automaton the automaton to reduce
+     * @return for each state of the automaton, the index of its image in the
+     *         reduced automaton, or a negative number if the state is removed.
+     *         The images are numbered from 0 without gaps
+     */
+    int[] mapping(BuchiAutomaton automaton);
+
+}
@@ -0,0 +1,29 @@
+package bait.preprocessing;
+
+import bait.automata.BuchiAutomaton;
+import bait.automata.Simulation;
+
+/**
+ * Merges the states that simulate each other. Quotienting by the equivalence
+ * induced by direct or delayed simulation preserves the language, and the
+ * merged state is final iff one of the states in its class is final.
+ */
+public final class SimulationQuotient implements Reduction {
+
+    private final Simulation.Kind kind;
+
+    public SimulationQuotient(Simulation.Kind kind) {
+        this.kind = kind;
+    }
+
+    @Override
+    public String name() {
+        return "Quotient by " + kind.name().toLowerCase() + " simulation";
+    }
+
+    @Override
+    public int[] mapping(BuchiAutomaton automaton) {
+        return Simulation.of(automaton, kind).equivalenceClasses();
+    }
+
+}
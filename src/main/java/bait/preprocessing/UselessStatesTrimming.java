@@ -0,0 +1,85 @@
+package bait.preprocessing;
+
+import java.util.Arrays;
+
+import bait.automata.BuchiAutomaton;
+import bait.automata.StronglyConnectedComponents;
+
+/**
+ * Removes the states that are not reachable from the initial state and the ones
+ * from which no accepting cycle can be reached: no accepted word visits them.
+ * The accepting cycles are found as the cyclic strongly connected components
+ * that contain a final state.
+ */
+public final class UselessStatesTrimming implements Reduction {
+
+    @Override
+    public String name() {
+        return "Trimming of useless states";
+    }
+
+    @Override
+    public int[] mapping(BuchiAutomaton automaton) {
+        int n = automaton.numberOfStates();
+        boolean[] reachable = reachableFromInitialState(automaton);
+        boolean[] live = reachingAcceptingCycles(automaton);
+        int[] mapping = new int[n];
+        int initialState = automaton.initialState().getIntIndex();
+        if (!live[initialState]) {
+            // the language is empty: only the initial state is kept
+            Arrays.fill(mapping, -1);
+            mapping[initialState] = 0;
+            return mapping;
+        }
+        int kept = 0;
+        for (int s = 0; s < n; s++)
+            mapping[s] = reachable[s] && live[s] ? kept++ : -1;
+        return mapping;
+    }
+
+    private static boolean[] reachableFromInitialState(BuchiAutomaton automaton) {
+        boolean[] reachable = new boolean[automaton.numberOfStates()];
+        int[] stack = new int[automaton.numberOfStates()];
+        int stackSize = 0;
+        int initialState = automaton.initialState().getIntIndex();
+        reachable[initialState] = true;
+        stack[stackSize++] = initialState;
+        while (stackSize > 0) {
+            int s = stack[--stackSize];
+            int end = automaton.successorsEnd(s);
+            for (int i = automaton.successorsBegin(s); i < end; i++) {
+                int t = automaton.successor(i);
+                if (!reachable[t]) {
+                    reachable[t] = true;
+                    stack[stackSize++] = t;
+                }
+            }
+        }
+        return reachable;
+    }
+
+    private static boolean[] reachingAcceptingCycles(BuchiAutomaton automaton) {
+        StronglyConnectedComponents components = automaton.stronglyConnectedComponents();
+        boolean[] live = new boolean[automaton.numberOfStates()];
+        int[] stack = new int[automaton.numberOfStates()];
+        int stackSize = 0;
+        for (int s = 0; s < automaton.numberOfStates(); s++)
+            if (automaton.isFinal(s) && components.isCyclic(components.component(s)) && !live[s]) {
+                live[s] = true;
+                stack[stackSize++] = s;
+            }
+        while (stackSize > 0) {
+            int s = stack[--stackSize];
+            int end = automaton.predecessorsEnd(s);
+            for (int i = automaton.predecessorsBegin(s); i < end; i++) {
+                int p = automaton.predecessor(i);
+                if (!live[p]) {
+                    live[p] = true;
+                    stack[stackSize++] = p;
+                }
+            }
+        }
+        return live;
+    }
+
+}
@@ -2,8 +2,47 @@ package bait.utility;
 
 import java.nio.file.Path;
 
+import bait.automata.Simulation;
+
 public final class Args {
 
+    /**
+     * The algorithm used to compute the fixpoints of the X and Y vectors.
+     */
+    public enum Engine {
+        /** Kleene iteration over two copies of the vector, see BAInc.kleene */
+        KLEENE,
+        /** chaotic iteration over a single vector driven by a worklist */
+        WORKLIST,
+        /**
+         * worklist iteration that stabilizes the strongly connected components of
+         * the first automaton one at a time, in topological order
+         */
+        SCC,
+        /**
+         * worklist iteration where the Y vectors of all the final states are
+         * computed by one fixpoint, sharing the images of their elements
+         */
+        SHARED
+    }
+
+    /**
+     * The quasiorders used to compare the elements of the antichains.
+     */
+    public enum Order {
+        /** inclusion of sets and relations */
+        INCLUSION,
+        /** inclusion up to the direct simulation of the second automaton */
+        SIMULATION
+    }
+
+    /**
+     * The formats of the rows written by the batch runner.
+     */
+    public enum Format {
+        CSV, JSON
+    }
+
     public static final int DEBUG_LEVEL_MINIMAL = 1;
     public static final int DEBUG_LEVEL_VERBOSE = 2;
     public static final int DEBUG_LEVEL_VERY_VERBOSE = 3;
@@ -11,6 +50,24 @@ public final class Args {
     private Path firstAutomatonPath;
     private Path secondAutomatonPath;
     private int debugLevel = 0; // values allowed: 0 to 3
+    private int threads = 1; // 1 means that the final states are handled sequentially
+    private boolean parallelIterations = false;
+    private Engine engine = Engine.KLEENE;
+    private int postCacheSize = 0; // 0 means that the post images are not cached
+    private Order order = Order.INCLUSION;
+    private boolean trim = true;
+    private Simulation.Kind quotient; // null means that the automata are not quotiented
+    private Path conversionSource; // null means that bait checks the inclusion
+    private Path conversionTarget;
+    private Path batchSource; // null means that bait checks a single inclusion
+    private Format format = Format.CSV;
+    private int warmup = 1;
+    private int repetitions = 3;
+    private Path manySource; // null means that bait checks a single automaton against B
+    private boolean server = false;
+    private int port = 0; // 0 means that the server reads the requests from stdin
+    private int workers = Runtime.getRuntime().availableProcessors();
+    private int automataCacheSize = 0; // 0 means that the automata are not cached
 
     public static Args of(String firstAutomatonPath, String secondAutomatonPath) {
         Args a = new Args();
@@ -19,6 +76,36 @@ public final class Args {
         return a;
     }
 
+    /**
+     * @return a copy of these arguments, whose options can be changed
+     *         independently
+     */
+    public Args copy() {
+        Args copy = new Args();
+        copy.firstAutomatonPath = firstAutomatonPath;
+        copy.secondAutomatonPath = secondAutomatonPath;
+        copy.debugLevel = debugLevel;
+        copy.threads = threads;
+        copy.parallelIterations = parallelIterations;
+        copy.engine = engine;
+        copy.postCacheSize = postCacheSize;
+        copy.order = order;
+        copy.trim = trim;
+        copy.quotient = quotient;
+        copy.conversionSource = conversionSource;
+        copy.conversionTarget = conversionTarget;
+        copy.batchSource = batchSource;
+        copy.format = format;
+        copy.warmup = warmup;
+        copy.repetitions = repetitions;
+        copy.manySource = manySource;
+        copy.server = server;
+        copy.port = port;
+        copy.workers = workers;
+        copy.automataCacheSize = automataCacheSize;
+        return copy;
+    }
+
     public Path firstAutomatonPath() {
         return firstAutomatonPath;
     }
@@ -43,6 +130,209 @@ public final class Args {
         this.debugLevel = debugLevel;
     }
 
+    public int threads() {
+        return threads;
+    }
+
+    public void setThreads(int threads) {
+        this.threads = threads;
+    }
+
+    public boolean parallelIterations() {
+        return parallelIterations;
+    }
+
+    public void setParallelIterations(boolean parallelIterations) {
+        this.parallelIterations = parallelIterations;
+    }
+
+    public Engine engine() {
+        return engine;
+    }
+
+    public void setEngine(Engine engine) {
+        this.engine = engine;
+    }
+
+    public int postCacheSize() {
+        return postCacheSize;
+    }
+
+    public void setPostCacheSize(int postCacheSize) {
+        this.postCacheSize = postCacheSize;
+    }
+
+    public Order order() {
+        return order;
+    }
+
+    public void setOrder(Order order) {
+        this.order = order;
+    }
+
+    /**
+     * @return true iff the useless states of the automata are removed before the
+     *         inclusion check
+     */
+    public boolean trim() {
+        return trim;
+    }
+
+    public void setTrim(boolean trim) {
+        this.trim = trim;
+    }
+
+    /**
+     * @return the kind of simulation whose equivalence is used to merge the states
+     *         of the automata before the inclusion check, or null if the states
+     *         are not merged
+     */
+    public Simulation.Kind quotient() {
+        return quotient;
+    }
+
+    public void setQuotient(Simulation.Kind quotient) {
+        this.quotient = quotient;
+    }
+
+    /**
+     * @return true iff bait must convert one automaton to the binary format
+     *         instead of checking an inclusion
+     */
+    public boolean conversion() {
+        return conversionSource != null;
+    }
+
+    public Path conversionSource() {
+        return conversionSource;
+    }
+
+    public Path conversionTarget() {
+        return conversionTarget;
+    }
+
+    public void setConversion(Path conversionSource, Path conversionTarget) {
+        this.conversionSource = conversionSource;
+        this.conversionTarget = conversionTarget;
+    }
+
+    /**
+     * @return true iff bait must check all the pairs of automata of a directory or
+     *         of a manifest instead of a single inclusion
+     */
+    public boolean batch() {
+        return batchSource != null;
+    }
+
+    /**
+     * @return the directory or the manifest with the pairs of automata to check
+     */
+    public Path batchSource() {
+        return batchSource;
+    }
+
+    public void setBatchSource(Path batchSource) {
+        this.batchSource = batchSource;
+    }
+
+    public Format format() {
+        return format;
+    }
+
+    public void setFormat(Format format) {
+        this.format = format;
+    }
+
+    /**
+     * @return the number of runs of each pair whose results are discarded
+     */
+    public int warmup() {
+        return warmup;
+    }
+
+    public void setWarmup(int warmup) {
+        this.warmup = warmup;
+    }
+
+    /**
+     * @return the number of measured runs of each pair
+     */
+    public int repetitions() {
+        return repetitions;
+    }
+
+    public void setRepetitions(int repetitions) {
+        this.repetitions = repetitions;
+    }
+
+    /**
+     * @return true iff bait must check the inclusion in B of each automaton of a
+     *         directory or of a manifest instead of a single one
+     */
+    public boolean many() {
+        return manySource != null;
+    }
+
+    /**
+     * @return the directory or the manifest with the automata to check against B
+     */
+    public Path manySource() {
+        return manySource;
+    }
+
+    public void setManySource(Path manySource) {
+        this.manySource = manySource;
+    }
+
+    /**
+     * @return true iff bait must answer the inclusion queries it receives instead
+     *         of checking a single inclusion
+     */
+    public boolean server() {
+        return server;
+    }
+
+    public void setServer(boolean server) {
+        this.server = server;
+    }
+
+    /**
+     * @return the local port on which the server accepts connections, or 0 if it
+     *         reads the queries from stdin
+     */
+    public int port() {
+        return port;
+    }
+
+    public void setPort(int port) {
+        this.port = port;
+    }
+
+    /**
+     * @return the number of queries that the server answers at the same time, and
+     *         of automata checked at the same time against the same B
+     */
+    public int workers() {
+        return workers;
+    }
+
+    public void setWorkers(int workers) {
+        this.workers = workers;
+    }
+
+    /**
+     * @return the number of automata that the batch runner and the server keep
+     *         after reading, building and reducing them, or 0 if they do not keep
+     *         them
+     */
+    public int automataCacheSize() {
+        return automataCacheSize;
+    }
+
+    public void setAutomataCacheSize(int automataCacheSize) {
+        this.automataCacheSize = automataCacheSize;
+    }
+
     public static boolean debugLevelIsValid(int dl) {
         return 0 <= dl && dl <= DEBUG_LEVEL_VERY_VERBOSE;
     }
@@ -2,6 +2,8 @@ package bait.utility;
 
 import java.nio.file.Path;
 
+import bait.automata.Simulation;
+
 public final class ArgsParser {
 
     public static Args parseArgs(String[] args) {
@@ -29,6 +31,112 @@ public final class ArgsParser {
                                 + Args.DEBUG_LEVEL_VERY_VERBOSE);
                     parsedArgs.setDebugLevel(debugLevel);
                     break;
+                case Settings.THREADS_FLAG_NAME:
+                    if (!thereIsAFollowingArgument(args, i) || !strIsInt(args[i + 1])
+                            || Integer.parseInt(args[i + 1]) < 1)
+                        printMessageAndHelpAndFail(
+                                "After " + Settings.THREADS_FLAG_NAME + " you must provide a positive number of threads");
+                    parsedArgs.setThreads(Integer.parseInt(args[++i]));
+                    break;
+                case Settings.PARALLEL_ITERATIONS_FLAG_NAME:
+                    parsedArgs.setParallelIterations(true);
+                    break;
+                case Settings.ENGINE_FLAG_NAME:
+                    if (!thereIsAFollowingArgument(args, i) || !isEngine(args[i + 1]))
+                        printMessageAndHelpAndFail("After " + Settings.ENGINE_FLAG_NAME + " you must provide one of "
+                                + enginesNames());
+                    parsedArgs.setEngine(Args.Engine.valueOf(args[++i].toUpperCase()));
+                    break;
+                case Settings.POST_CACHE_FLAG_NAME:
+                    if (!thereIsAFollowingArgument(args, i) || !strIsInt(args[i + 1]))
+                        printMessageAndHelpAndFail("After " + Settings.POST_CACHE_FLAG_NAME
+                                + " you must provide the maximum number of cached post images");
+                    parsedArgs.setPostCacheSize(Integer.parseInt(args[++i]));
+                    break;
+                case Settings.ORDER_FLAG_NAME:
+                    if (!thereIsAFollowingArgument(args, i) || !isOrder(args[i + 1]))
+                        printMessageAndHelpAndFail("After " + Settings.ORDER_FLAG_NAME + " you must provide one of "
+                                + ordersNames());
+                    parsedArgs.setOrder(Args.Order.valueOf(args[++i].toUpperCase()));
+                    break;
+                case Settings.NO_TRIM_FLAG_NAME:
+                    parsedArgs.setTrim(false);
+                    break;
+                case Settings.QUOTIENT_FLAG_NAME:
+                    if (!thereIsAFollowingArgument(args, i) || !isSimulationKind(args[i + 1]))
+                        printMessageAndHelpAndFail("After " + Settings.QUOTIENT_FLAG_NAME
+                                + " you must provide one of " + simulationKindsNames());
+                    parsedArgs.setQuotient(Simulation.Kind.valueOf(args[++i].toUpperCase()));
+                    break;
+                case Settings.CONVERT_FLAG_NAME:
+                    if (!thereIsAFollowingArgument(args, i + 1))
+                        printMessageAndHelpAndFail("After " + Settings.CONVERT_FLAG_NAME
+                                + " you must provide the path to the automaton and the path of the binary file");
+                    Path source = Path.of(args[++i]);
+                    Path target = Path.of(args[++i]);
+                    if (!isAutomataFormat(source.toString()))
+                        printMessageAndHelpAndFail(
+                                "Automata must be provided in '.ba' format, optionally compressed with gzip");
+                    if (!target.toString().toLowerCase().endsWith(Settings.BINARY_AUTOMATA_FORMAT_SUFFIX))
+                        printMessageAndHelpAndFail("The binary file must have the extension "
+                                + Settings.BINARY_AUTOMATA_FORMAT_SUFFIX);
+                    parsedArgs.setConversion(source, target);
+                    break;
+                case Settings.BATCH_FLAG_NAME:
+                    if (!thereIsAFollowingArgument(args, i))
+                        printMessageAndHelpAndFail("After " + Settings.BATCH_FLAG_NAME
+                                + " you must provide a directory or a manifest of pairs of automata");
+                    parsedArgs.setBatchSource(Path.of(args[++i]));
+                    break;
+                case Settings.FORMAT_FLAG_NAME:
+                    if (!thereIsAFollowingArgument(args, i) || !isFormat(args[i + 1]))
+                        printMessageAndHelpAndFail("After " + Settings.FORMAT_FLAG_NAME + " you must provide one of "
+                                + formatsNames());
+                    parsedArgs.setFormat(Args.Format.valueOf(args[++i].toUpperCase()));
+                    break;
+                case Settings.WARMUP_FLAG_NAME:
+                    if (!thereIsAFollowingArgument(args, i) || !strIsInt(args[i + 1]))
+                        printMessageAndHelpAndFail(
+                                "After " + Settings.WARMUP_FLAG_NAME + " you must provide the number of warmup runs");
+                    parsedArgs.setWarmup(Integer.parseInt(args[++i]));
+                    break;
+                case Settings.REPETITIONS_FLAG_NAME:
+                    if (!thereIsAFollowingArgument(args, i) || !strIsInt(args[i + 1])
+                            || Integer.parseInt(args[i + 1]) < 1)
+                        printMessageAndHelpAndFail("After " + Settings.REPETITIONS_FLAG_NAME
+                                + " you must provide a positive number of measured runs");
+                    parsedArgs.setRepetitions(Integer.parseInt(args[++i]));
+                    break;
+                case Settings.MANY_FLAG_NAME:
+                    if (!thereIsAFollowingArgument(args, i))
+                        printMessageAndHelpAndFail("After " + Settings.MANY_FLAG_NAME
+                                + " you must provide a directory or a manifest of automata");
+                    parsedArgs.setManySource(Path.of(args[++i]));
+                    break;
+                case Settings.SERVER_FLAG_NAME:
+                    parsedArgs.setServer(true);
+                    break;
+                case Settings.PORT_FLAG_NAME:
+                    if (!thereIsAFollowingArgument(args, i) || !strIsInt(args[i + 1])
+                            || Integer.parseInt(args[i + 1]) < 1 || Integer.parseInt(args[i + 1]) > 65535)
+                        printMessageAndHelpAndFail(
+                                "After " + Settings.PORT_FLAG_NAME + " you must provide a port between 1 and 65535");
+                    parsedArgs.setServer(true);
+                    parsedArgs.setPort(Integer.parseInt(args[++i]));
+                    break;
+                case Settings.WORKERS_FLAG_NAME:
+                    if (!thereIsAFollowingArgument(args, i) || !strIsInt(args[i + 1])
+                            || Integer.parseInt(args[i + 1]) < 1)
+                        printMessageAndHelpAndFail("After " + Settings.WORKERS_FLAG_NAME
+                                + " you must provide a positive number of workers");
+                    parsedArgs.setWorkers(Integer.parseInt(args[++i]));
+                    break;
+                case Settings.AUTOMATA_CACHE_FLAG_NAME:
+                    if (!thereIsAFollowingArgument(args, i) || !strIsInt(args[i + 1]))
+                        printMessageAndHelpAndFail("After " + Settings.AUTOMATA_CACHE_FLAG_NAME
+                                + " you must provide the maximum number of cached automata");
+                    parsedArgs.setAutomataCacheSize(Integer.parseInt(args[++i]));
+                    break;
                 case Settings.FIRST_AUTOMATON_FLAG_NAME:
                     if (!thereIsAFollowingArgument(args, i))
                         printMessageAndHelpAndFail("After " + Settings.FIRST_AUTOMATON_FLAG_NAME
@@ -36,7 +144,8 @@ public final class ArgsParser {
                     aSpecified = true;
                     parsedArgs.setFirstAutomatonPath(Path.of(args[++i]));
                     if (!isAutomataFormat(parsedArgs.firstAutomatonPath().toString()))
-                        printMessageAndHelpAndFail("Automata must be provided in '.ba' format");
+                        printMessageAndHelpAndFail(
+                                "Automata must be provided in '.ba' format, optionally compressed with gzip");
                     break;
                 case Settings.SECOND_AUTOMATON_FLAG_NAME:
                     if (!thereIsAFollowingArgument(args, i))
@@ -45,7 +154,8 @@ public final class ArgsParser {
                     bSpecified = true;
                     parsedArgs.setSecondAutomatonPath(Path.of(args[++i]));
                     if (!isAutomataFormat(parsedArgs.secondAutomatonPath().toString()))
-                        printMessageAndHelpAndFail("Automata must be provided in '.ba' format");
+                        printMessageAndHelpAndFail(
+                                "Automata must be provided in '.ba' format, optionally compressed with gzip");
                     break;
                 default:
                     System.out.println("No such option: " + args[i]);
@@ -53,7 +163,11 @@ public final class ArgsParser {
                     System.exit(1);
             }
         }
-        if (!aSpecified || !bSpecified)
+        if (parsedArgs.many() && !bSpecified)
+            printMessageAndHelpAndFail("Specify the automaton B using " + Settings.SECOND_AUTOMATON_FLAG_NAME
+                    + " with " + Settings.MANY_FLAG_NAME);
+        if (!parsedArgs.conversion() && !parsedArgs.batch() && !parsedArgs.server() && !parsedArgs.many()
+                && (!aSpecified || !bSpecified))
             printMessageAndHelpAndFail("Specify both automata using " + Settings.FIRST_AUTOMATON_FLAG_NAME + " and "
                     + Settings.SECOND_AUTOMATON_FLAG_NAME + " options");
         return parsedArgs;
@@ -64,12 +178,61 @@ public final class ArgsParser {
                 + Settings.SECOND_AUTOMATON_FLAG_NAME + " {pathToSecondAutomaton}");
         System.out.println(
                 "Computes whether the language of the first automaton is containted in the language of the second.");
-        System.out.println("The automata must be specified in '.ba' format.");
+        System.out.println(
+                "The automata must be specified in '.ba' format, optionally compressed with gzip ('.ba.gz').");
         System.out.println("Optional arguments:");
         System.out.println(Settings.HELP_FLAG_NAME + ", " + Settings.HELP_FLAG_NAME_EXTENDED + "\tPrints help");
         System.out.println(Settings.DEBUG_FLAG_NAME
                 + "\t\tPrints debug information. Must also specify also a debug level between 0 and "
                 + Args.DEBUG_LEVEL_VERY_VERBOSE + ". By default is 0, silent");
+        System.out.println(Settings.THREADS_FLAG_NAME
+                + "\t\tNumber of threads used to compute the Y vectors of the final states in parallel. "
+                + "By default is 1, sequential");
+        System.out.println(Settings.PARALLEL_ITERATIONS_FLAG_NAME
+                + "\tAlso updates the entries of the vectors in parallel within each iteration, using the threads "
+                + "given with " + Settings.THREADS_FLAG_NAME);
+        System.out.println(Settings.ENGINE_FLAG_NAME + "\t\tAlgorithm used to compute the fixpoints, one of "
+                + enginesNames() + ". By default is kleene");
+        System.out.println(Settings.POST_CACHE_FLAG_NAME
+                + "\tMaximum number of post images of X and Y elements that are cached. By default is 0, no cache");
+        System.out.println(Settings.ORDER_FLAG_NAME + "\t\tQuasiorder used to compare the elements of the antichains, "
+                + "one of " + ordersNames() + ". The simulation order is coarser, as it compares the states of the "
+                + "second automaton up to its direct simulation. By default is inclusion");
+        System.out.println(Settings.NO_TRIM_FLAG_NAME + "\t\tDoes not remove the states that are unreachable or that "
+                + "cannot reach an accepting cycle before checking the inclusion");
+        System.out.println(Settings.QUOTIENT_FLAG_NAME + "\tMerges the states that simulate each other before "
+                + "checking the inclusion, using one of " + simulationKindsNames() + " simulation. By default the "
+                + "states are not merged");
+        System.out.println(Settings.CONVERT_FLAG_NAME + " {pathToAutomaton} {pathToBinaryFile}\tConverts the automaton to "
+                + "the binary format, which is loaded faster, instead of checking an inclusion. Files with extension "
+                + Settings.BINARY_AUTOMATA_FORMAT_SUFFIX + " are accepted by " + Settings.FIRST_AUTOMATON_FLAG_NAME
+                + " and " + Settings.SECOND_AUTOMATON_FLAG_NAME);
+        System.out.println(Settings.BATCH_FLAG_NAME + " {pathToDirectoryOrManifest}\tChecks many pairs of automata instead "
+                + "of one, and writes one row of measures for each run. In a directory, each automaton whose name "
+                + "contains " + Settings.BATCH_SUB_MARKER + " is checked against the one with the same name where "
+                + Settings.BATCH_SUB_MARKER + " is replaced by " + Settings.BATCH_SUP_MARKER + ". A manifest lists one "
+                + "pair per line, the two paths separated by whitespace");
+        System.out.println(Settings.FORMAT_FLAG_NAME + "\tFormat of the rows written by " + Settings.BATCH_FLAG_NAME
+                + ", one of " + formatsNames() + ". By default is csv");
+        System.out.println(Settings.WARMUP_FLAG_NAME + "\tNumber of runs of each pair whose measures are discarded by "
+                + Settings.BATCH_FLAG_NAME + ". By default is 1");
+        System.out.println(Settings.REPETITIONS_FLAG_NAME + "\tNumber of measured runs of each pair by "
+                + Settings.BATCH_FLAG_NAME + ". By default is 3");
+        System.out.println(Settings.MANY_FLAG_NAME + " {pathToDirectoryOrManifest}\tChecks the inclusion in the "
+                + "automaton given with " + Settings.SECOND_AUTOMATON_FLAG_NAME + " of each automaton of a directory, "
+                + "or of a manifest with one path per line, computing what depends only on B once. Writes one JSON "
+                + "object per line as soon as each check is over");
+        System.out.println(Settings.SERVER_FLAG_NAME + "\tAnswers the inclusion queries read from stdin, one JSON object "
+                + "per line such as {\"id\": 1, \"a\": \"A.ba\", \"b\": \"B.ba\"}, with one JSON object per line on "
+                + "stdout. A query can also set \"engine\", \"order\", \"trim\" and \"quotient\"");
+        System.out.println(Settings.PORT_FLAG_NAME + "\t\tAnswers the queries of the connections to the given local port "
+                + "instead of stdin");
+        System.out.println(Settings.WORKERS_FLAG_NAME + "\tNumber of queries answered at the same time by the server, "
+                + "and of automata checked at the same time by " + Settings.MANY_FLAG_NAME + ". "
+                + "By default is the number of processors");
+        System.out.println(Settings.AUTOMATA_CACHE_FLAG_NAME + "\tMaximum number of automata that "
+                + Settings.BATCH_FLAG_NAME + " and " + Settings.SERVER_FLAG_NAME + " keep after reading, building and "
+                + "reducing them, to reuse them when the same file appears again. By default is 0, no cache");
         System.out.println();
         System.out.println("Example: java -jar bait.jar -a path/to/A.ba -b path/to/B.ba");
     }
@@ -89,8 +252,83 @@ public final class ArgsParser {
         return str.matches("\\d+");
     }
 
-    private static boolean isAutomataFormat(String s) {
-        return s.toLowerCase().endsWith(Settings.AUTOMATA_FORMAT_SUFFIX.toLowerCase());
+    private static boolean isEngine(String s) {
+        for (Args.Engine engine : Args.Engine.values())
+            if (engine.name().equalsIgnoreCase(s))
+                return true;
+        return false;
+    }
+
+    private static String enginesNames() {
+        StringBuilder names = new StringBuilder();
+        for (Args.Engine engine : Args.Engine.values()) {
+            if (names.length() > 0)
+                names.append(", ");
+            names.append(engine.name().toLowerCase());
+        }
+        return names.toString();
+    }
+
+    private static boolean isOrder(String s) {
+        for (Args.Order order : Args.Order.values())
+            if (order.name().equalsIgnoreCase(s))
+                return true;
+        return false;
+    }
+
+    private static String ordersNames() {
+        StringBuilder names = new StringBuilder();
+        for (Args.Order order : Args.Order.values()) {
+            if (names.length() > 0)
+                names.append(", ");
+            names.append(order.name().toLowerCase());
+        }
+        return names.toString();
+    }
+
+    private static boolean isFormat(String s) {
+        for (Args.Format format : Args.Format.values())
+            if (format.name().equalsIgnoreCase(s))
+                return true;
+        return false;
+    }
+
+    private static String formatsNames() {
+        StringBuilder names = new StringBuilder();
+        for (Args.Format format : Args.Format.values()) {
+            if (names.length() > 0)
+                names.append(", ");
+            names.append(format.name().toLowerCase());
+        }
+        return names.toString();
+    }
+
+    private static boolean isSimulationKind(String s) {
+        for (Simulation.Kind kind : Simulation.Kind.values())
+            if (kind.name().equalsIgnoreCase(s))
+                return true;
+        return false;
+    }
+
+    private static String simulationKindsNames() {
+        StringBuilder names = new StringBuilder();
+        for (Simulation.Kind kind : Simulation.Kind.values()) {
+            if (names.length() > 0)
+                names.append(", ");
+            names.append(kind.name().toLowerCase());
+        }
+        return names.toString();
+    }
+
+    /**
+     * @return true iff the path has the extension of one of the formats of the
+     *         automata
+     */
+    public static boolean isAutomataFormat(String s) {
+        String lowerCase = s.toLowerCase();
+        return lowerCase.endsWith(Settings.AUTOMATA_FORMAT_SUFFIX.toLowerCase())
+                || lowerCase.endsWith(Settings.COMPRESSED_AUTOMATA_FORMAT_SUFFIX.toLowerCase())
+                || lowerCase.endsWith(Settings.BINARY_AUTOMATA_FORMAT_SUFFIX.toLowerCase());
     }
 
     private ArgsParser() {
@@ -0,0 +1,189 @@
+package bait.utility;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Reading and writing of flat JSON objects, whose values are strings, numbers,
+ * booleans or null. It is enough for the rows and the requests exchanged with
+ * the batch runner and the server, which are one object per line.
+ */
+public final class Json {
+
+    /**
+     * @param line a JSON object without nested objects or arrays
+     * @return the members of the object in their order. Integral numbers are Long,
+     *         the other numbers are Double
+     * @throws IllegalArgumentException if the line is not such an object
+     */
+    public static Map<String, Object> parseObject(String line) {
+        Reader reader = new Reader(line);
+        Map<String, Object> members = new LinkedHashMap<>();
+        reader.expect('{');
+        if (!reader.consume('}')) {
+            do {
+                String name = reader.string();
+                reader.expect(':');
+                members.put(name, reader.value());
+            } while (reader.consume(','));
+            reader.expect('}');
+        }
+        reader.expectEnd();
+        return members;
+    }
+
+    /**
+     * @param members the members of the object, whose values are strings,
+     *                numbers, booleans or null
+     * @return the object on a single line
+     */
+    public static String object(Map<String, ?> members) {
+        StringBuilder object = new StringBuilder("{");
+        for (Map.Entry<String, ?> member : members.entrySet()) {
+            if (object.length() > 1)
+                object.append(", ");
+            object.append(quote(member.getKey())).append(": ").append(value(member.getValue()));
+        }
+        return object.append('}').toString();
+    }
+
+    public static String value(Object value) {
+        return value instanceof String ? quote((String) value) : String.valueOf(value);
+    }
+
+    public static String quote(String s) {
+        StringBuilder quoted = new StringBuilder("\"");
+        for (char c : s.toCharArray()) {
+            if (c == '"' || c == '\\')
+                quoted.append('\\').append(c);
+            else if (c < 0x20)
+                quoted.append(String.format("\\u%04x", (int) c));
+            else
+                quoted.append(c);
+        }
+        return quoted.append('"').toString();
+    }
+
+    private static final class Reader {
+
+        private final String text;
+        private int position = 0;
+
+        private Reader(String text) {
+            this.text = text;
+        }
+
+        private void skipWhitespace() {
+            while (position < text.length() && Character.isWhitespace(text.charAt(position)))
+                position++;
+        }
+
+        private boolean consume(char c) {
+            skipWhitespace();
+            if (position < text.length() && text.charAt(position) == c) {
+                position++;
+                return true;
+            }
+            return false;
+        }
+
+        private void expect(char c) {
+            if (!consume(c))
+                throw error("'" + c + "' expected");
+        }
+
+        private void expectEnd() {
+            skipWhitespace();
+            if (position < text.length())
+                throw error("end of the object expected");
+        }
+
+        private Object value() {
+            skipWhitespace();
+            if (position >= text.length())
+                throw error("value expected");
+            char c = text.charAt(position);
+            if (c == '"')
+                return string();
+            if (text.startsWith("true", position)) {
+                position += 4;
+                return true;
+            }
+            if (text.startsWith("false", position)) {
+                position += 5;
+                return false;
+            }
+            if (text.startsWith("null", position)) {
+                position += 4;
+                return null;
+            }
+            return number();
+        }
+
+        private String string() {
+            expect('"');
+            StringBuilder s = new StringBuilder();
+            while (position < text.length()) {
+                char c = text.charAt(position++);
+                if (c == '"')
+                    return s.toString();
+                if (c != '\\') {
+                    s.append(c);
+                    continue;
+                }
+                if (position >= text.length())
+                    break;
+                char escaped = text.charAt(position++);
+                switch (escaped) {
+                    case 'b':
+                        s.append('\b');
+                        break;
+                    case 'f':
+                        s.append('\f');
+                        break;
+                    case 'n':
+                        s.append('\n');
+                        break;
+                    case 'r':
+                        s.append('\r');
+                        break;
+                    case 't':
+                        s.append('\t');
+                        break;
+                    case 'u':
+                        if (position + 4 > text.length())
+                            throw error("truncated escape");
+                        s.append((char) Integer.parseInt(text.substring(position, position + 4), 16));
+                        position += 4;
+                        break;
+                    default:
+                        s.append(escaped);
+                }
+            }
+            throw error("unterminated string");
+        }
+
+        private Object number() {
+            int begin = position;
+            while (position < text.length() && "+-0123456789.eE".indexOf(text.charAt(position)) >= 0)
+                position++;
+            String number = text.substring(begin, position);
+            try {
+                if (number.matches("-?\\d+"))
+                    return Long.parseLong(number);
+                return Double.parseDouble(number);
+            } catch (NumberFormatException e) {
+                throw error("value expected");
+            }
+        }
+
+        private IllegalArgumentException error(String message) {
+            return new IllegalArgumentException("Malformed JSON at column " + (position + 1) + ": " + message);
+        }
+
+    }
+
+    private Json() {
+    }
+
+}
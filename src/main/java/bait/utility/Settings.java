@@ -3,11 +3,34 @@ package bait.utility;
 public final class Settings {
 
     public static final String AUTOMATA_FORMAT_SUFFIX = ".ba";
+    public static final String COMPRESSED_AUTOMATA_FORMAT_SUFFIX = ".ba.gz";
+    public static final String BINARY_AUTOMATA_FORMAT_SUFFIX = ".bab";
     public static final String FIRST_AUTOMATON_FLAG_NAME = "-a";
     public static final String SECOND_AUTOMATON_FLAG_NAME = "-b";
     public static final String HELP_FLAG_NAME = "-h";
     public static final String HELP_FLAG_NAME_EXTENDED = "--help";
     public static final String DEBUG_FLAG_NAME = "-d";
+    public static final String THREADS_FLAG_NAME = "-t";
+    public static final String PARALLEL_ITERATIONS_FLAG_NAME = "--parallel-iterations";
+    public static final String ENGINE_FLAG_NAME = "--engine";
+    public static final String POST_CACHE_FLAG_NAME = "--post-cache";
+    public static final String CONVERT_FLAG_NAME = "--convert";
+    public static final String ORDER_FLAG_NAME = "--order";
+    public static final String NO_TRIM_FLAG_NAME = "--no-trim";
+    public static final String QUOTIENT_FLAG_NAME = "--quotient";
+    public static final String BATCH_FLAG_NAME = "--batch";
+    public static final String FORMAT_FLAG_NAME = "--format";
+    public static final String WARMUP_FLAG_NAME = "--warmup";
+    public static final String REPETITIONS_FLAG_NAME = "--repetitions";
+    public static final String MANY_FLAG_NAME = "--many";
+    public static final String SERVER_FLAG_NAME = "--server";
+    public static final String PORT_FLAG_NAME = "--port";
+    public static final String WORKERS_FLAG_NAME = "--workers";
+    public static final String AUTOMATA_CACHE_FLAG_NAME = "--automata-cache";
+    // in a directory given to --batch, the automaton A of a pair has this marker in
+    // its name, and B has the same name with the other marker
+    public static final String BATCH_SUB_MARKER = "_sub";
+    public static final String BATCH_SUP_MARKER = "_sup";
 
     private Settings() {
     }
@@ -1,10 +1,20 @@
-import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
 
 import bait.algorithm.Runner;
 import bait.automata.AutomatonParser.ParseError;
 import bait.utility.Args;
+import bait.utility.ArgsParser;
+import bait.utility.Settings;
 
 import java.io.IOException;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
 /**
  * These tests verify that the language inclusion algorithm, took as a black
@@ -22,180 +32,212 @@ import java.io.IOException;
  * many examples in which the inclusion holds, it is useful to add the reversed
  * version to check also when the inclusion *doesn't* hold.
  *
+ * Each test runs once for each configuration in {@link AllConfigurations},
+ * given as options of the command line, so that all the engines, orders,
+ * reductions and parallel runs are checked against the same verdicts.
+ *
  * To run the tests: `./gradlew test`
  */
 class LanguageInclusionTest {
 
+    @Target(ElementType.METHOD)
+    @Retention(RetentionPolicy.RUNTIME)
+    @ParameterizedTest(name = "{0}")
+    @ValueSource(strings = { "--engine kleene", "--engine worklist", "--engine scc", "--engine shared", "--no-trim",
+            "--quotient direct", "--quotient delayed", "--order simulation", "-t 4", "-t 4 --engine worklist",
+            "-t 4 --parallel-iterations", "--post-cache 16" })
+    @interface AllConfigurations {
+    }
 
     /******************************************************************************************************************/
     /* Inclusion holds */
     /******************************************************************************************************************/
 
-    @Test
-    void Specal_factors_are_unique() {
+    @AllConfigurations
+    void Specal_factors_are_unique(String options) {
         Args args = Args.of("test-automata/Specal_factors_are_unique_sub.autfilt.ba",
                 "test-automata/Specal_factors_are_unique_sup.autfilt.aligned.ba");
-        inclusionShouldHold(args);
+        inclusionShouldHold(args, options);
     }
 
-    @Test
-    void The_lazy_Ostrowski_representation_is_unique() {
+    @AllConfigurations
+    void The_lazy_Ostrowski_representation_is_unique(String options) {
         Args args = Args.of("test-automata/The_lazy_Ostrowski_representation_is_unique_sub.autfilt.ba",
                 "test-automata/The_lazy_Ostrowski_representation_is_unique_sup.autfilt.ba");
-        inclusionShouldHold(args);
+        inclusionShouldHold(args, options);
     }
 
-    @Test
-    void Sturmian_words_start_with_arbitarily_long_palindrome() {
+    @AllConfigurations
+    void Sturmian_words_start_with_arbitarily_long_palindrome(String options) {
         Args args = Args.of(
                 "test-automata/Sturmian_words_start_with_arbitarily_long_palindromes_sub.autfilt.ba",
                 "test-automata/Sturmian_words_start_with_arbitarily_long_palindromes_sup.autfilt.ba");
-        inclusionShouldHold(args);
+        inclusionShouldHold(args, options);
     }
 
-    @Test
-    void Sucessors_are_unique() {
+    @AllConfigurations
+    void Sucessors_are_unique(String options) {
         Args args = Args.of("test-automata/Sucessors_are_unique_sub.autfilt.ba",
                 "test-automata/Sucessors_are_unique_sup.autfilt.aligned.ba");
-        inclusionShouldHold(args);
+        inclusionShouldHold(args, options);
     }
 
-    @Test
-    void All_factors_of_Sturmian_words_are_recurrent() {
+    @AllConfigurations
+    void All_factors_of_Sturmian_words_are_recurrent(String options) {
         Args args = Args.of("test-automata/All_factors_of_Sturmian_words_are_recurrent_sub.autfilt.ba",
                 "test-automata/All_factors_of_Sturmian_words_are_recurrent_sup.autfilt.ba");
-        inclusionShouldHold(args);
+        inclusionShouldHold(args, options);
     }
 
-    @Test
-    void Addition_of_Ostrowski_a_representations_is_a_function() {
+    @AllConfigurations
+    void Addition_of_Ostrowski_a_representations_is_a_function(String options) {
         Args args = Args.of(
                 "test-automata/Addition_of_Ostrowski-a_representations_is_a_function_(ie,_there_is_an_output_for_every_input)_sub.autfilt.ba",
                 "test-automata/Addition_of_Ostrowski-a_representations_is_a_function_(ie,_there_is_an_output_for_every_input)_sup.autfilt.ba");
-        inclusionShouldHold(args);
+        inclusionShouldHold(args, options);
     }
 
-    @Test
-    void All_natural_numbers_other_than_0_have_a_predecessor() {
+    @AllConfigurations
+    void All_natural_numbers_other_than_0_have_a_predecessor(String options) {
         Args args = Args.of(
                 "test-automata/All_natural_numbers_other_than_0_have_a_predecessor_sub.autfilt.ba",
                 "test-automata/All_natural_numbers_other_than_0_have_a_predecessor_sup.autfilt.aligned.ba");
-        inclusionShouldHold(args);
+        inclusionShouldHold(args, options);
     }
 
-    @Test
-    void All_Sturmian_words_start_with_arbitrarily_long_squares() {
+    @AllConfigurations
+    void All_Sturmian_words_start_with_arbitrarily_long_squares(String options) {
         Args args = Args.of(
                 "test-automata/All_Sturmian_words_start_with_arbitrarily_long_squares_sub.autfilt.ba",
                 "test-automata/All_Sturmian_words_start_with_arbitrarily_long_squares_sup.autfilt.ba");
-        inclusionShouldHold(args);
+        inclusionShouldHold(args, options);
     }
 
-    @Test
-    void All_Sturmian_words_contain_cubes() {
+    @AllConfigurations
+    void All_Sturmian_words_contain_cubes(String options) {
         Args args = Args.of("test-automata/All_Sturmian_words_contain_cubes_sub.autfilt.ba",
                 "test-automata/All_Sturmian_words_contain_cubes_sup.autfilt.ba");
-        inclusionShouldHold(args);
+        inclusionShouldHold(args, options);
     }
 
-    @Test
-    void concur11Fig1() {
+    @AllConfigurations
+    void concur11Fig1(String options) {
         Args args = Args.of("test-automata/concur11A.ba", "test-automata/concur11B.ba");
-        inclusionShouldHold(args);
+        inclusionShouldHold(args, options);
     }
 
-    @Test
-    void peterson() {
+    @AllConfigurations
+    void peterson(String options) {
         Args args = Args.of("test-automata/petersonA.ba", "test-automata/petersonB.ba");
-        inclusionShouldHold(args);
+        inclusionShouldHold(args, options);
     }
 
-    @Test
-    void emptyIntoSomething() {
+    @AllConfigurations
+    void emptyIntoSomething(String options) {
         Args args = Args.of("test-automata/empty-into-somethingA.ba",
                 "test-automata/empty-into-somethingB.ba");
-        inclusionShouldHold(args);
+        inclusionShouldHold(args, options);
     }
 
-    @Test
-    void emptyIntoEmpty() {
+    @AllConfigurations
+    void emptyIntoEmpty(String options) {
         Args args = Args.of("test-automata/empty-into-emptyA.ba", "test-automata/empty-into-emptyB.ba");
-        inclusionShouldHold(args);
+        inclusionShouldHold(args, options);
     }
 
-    @Test
-    void deadStates() {
+    @AllConfigurations
+    void deadStates(String options) {
         Args args = Args.of("test-automata/dead-statesA.ba", "test-automata/dead-statesB.ba");
-        inclusionShouldHold(args);
+        inclusionShouldHold(args, options);
     }
 
-    @Test
-    void identity1() {
+    @AllConfigurations
+    void identity1(String options) {
         Args args = Args.of("test-automata/identityA.ba", "test-automata/identityB.ba");
-        inclusionShouldHold(args);
+        inclusionShouldHold(args, options);
     }
 
-    @Test
-    void identity2() {
+    @AllConfigurations
+    void identity2(String options) {
         Args args = Args.of("test-automata/identity2A.ba", "test-automata/identity2B.ba");
-        inclusionShouldHold(args);
+        inclusionShouldHold(args, options);
     }
 
     /******************************************************************************************************************/
     /* Inclusion doesn't hold */
     /******************************************************************************************************************/
 
-    @Test
-    void philsv3() {
+    @AllConfigurations
+    void philsv3(String options) {
         Args args = Args.of("test-automata/philsV3A.ba", "test-automata/philsV3B.ba");
-        inclusionShouldNotHold(args);
+        inclusionShouldNotHold(args, options);
     }
 
-    @Test
-    void philsv2() {
+    @AllConfigurations
+    void philsv2(String options) {
         Args args = Args.of("test-automata/philsV2A.ba", "test-automata/philsV2B.ba");
-        inclusionShouldNotHold(args);
+        inclusionShouldNotHold(args, options);
     }
 
-    @Test
-    void thesis() {
+    @AllConfigurations
+    void thesis(String options) {
         Args args = Args.of("test-automata/thesisA.ba", "test-automata/thesisB.ba");
-        inclusionShouldNotHold(args);
+        inclusionShouldNotHold(args, options);
     }
 
-    @Test
-    void somethingIntoEmpty() {
+    @AllConfigurations
+    void somethingIntoEmpty(String options) {
         Args args = Args.of("test-automata/something-into-emptyA.ba",
                 "test-automata/something-into-emptyB.ba");
-        inclusionShouldNotHold(args);
+        inclusionShouldNotHold(args, options);
     }
 
-    @Test
-    void Specal_factors_are_unique_reversed() {
+    @AllConfigurations
+    void Specal_factors_are_unique_reversed(String options) {
         Args args = Args.of("test-automata/Specal_factors_are_unique_sup.autfilt.aligned.ba",
                 "test-automata/Specal_factors_are_unique_sub.autfilt.ba");
-        inclusionShouldNotHold(args);
+        inclusionShouldNotHold(args, options);
     }
 
-    @Test
-    void The_lazy_Ostrowski_representation_is_unique_reversed() {
+    @AllConfigurations
+    void The_lazy_Ostrowski_representation_is_unique_reversed(String options) {
         Args args = Args.of("test-automata/The_lazy_Ostrowski_representation_is_unique_sup.autfilt.ba",
                 "test-automata/The_lazy_Ostrowski_representation_is_unique_sub.autfilt.ba");
-        inclusionShouldNotHold(args);
+        inclusionShouldNotHold(args, options);
     }
 
-    @Test
-    void Sturmian_words_start_with_arbitarily_long_palindrome_reversed() {
+    @AllConfigurations
+    void Sturmian_words_start_with_arbitarily_long_palindrome_reversed(String options) {
         Args args = Args.of(
                 "test-automata/Sturmian_words_start_with_arbitarily_long_palindromes_sup.autfilt.ba",
                 "test-automata/Sturmian_words_start_with_arbitarily_long_palindromes_sub.autfilt.ba");
-        inclusionShouldNotHold(args);
+        inclusionShouldNotHold(args, options);
     }
 
     /******************************************************************************************************************/
     /* Utility to run the tests */
     /******************************************************************************************************************/
 
+    static void inclusionShouldHold(Args arguments, String options) {
+        inclusionShouldHold(configured(arguments, options));
+    }
+
+    static void inclusionShouldNotHold(Args arguments, String options) {
+        inclusionShouldNotHold(configured(arguments, options));
+    }
+
+    /**
+     * @return the arguments with the paths of the automata of arguments and the
+     *         given options of the command line
+     */
+    static Args configured(Args arguments, String options) {
+        List<String> commandLine = new ArrayList<>(List.of(Settings.FIRST_AUTOMATON_FLAG_NAME,
+                arguments.firstAutomatonPath().toString(), Settings.SECOND_AUTOMATON_FLAG_NAME,
+                arguments.secondAutomatonPath().toString()));
+        commandLine.addAll(Arrays.asList(options.split(" ")));
+        return ArgsParser.parseArgs(commandLine.toArray(new String[0]));
+    }
+
     static void inclusionShouldHold(Args arguments) {
         try {
             boolean included = inclusionHolds(arguments);
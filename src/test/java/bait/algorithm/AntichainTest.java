@@ -0,0 +1,69 @@
+package bait.algorithm;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import bait.collections.StateSet;
+import bait.comparator.XInclusionComparator;
+
+class AntichainTest {
+
+    /**
+     * @return the antichain {{0}, {1, 2}, {3, 4, 5}}, whose elements have weights
+     *         1, 2 and 3
+     */
+    private static Antichain<StateSet> antichain() {
+        Antichain<StateSet> antichain = new Antichain<>(new XInclusionComparator());
+        antichain.glbWith(StateSet.of(0));
+        antichain.glbWith(StateSet.of(1, 2));
+        antichain.glbWith(StateSet.of(3, 4, 5));
+        return antichain;
+    }
+
+    @Test
+    void glbKeepsTheMinimalElements() {
+        Antichain<StateSet> antichain = antichain();
+        assertFalse(antichain.glbWith(StateSet.of(0, 6)));
+        assertTrue(antichain.glbWith(StateSet.of(3)));
+        assertEquals(3, antichain.size());
+        assertFalse(antichain.elements().contains(StateSet.of(3, 4, 5)));
+    }
+
+    @Test
+    void avoidedComparisonsOfAQueryThatStopsEarly() {
+        Antichain<StateSet> antichain = antichain();
+        long before = antichain.avoidedComparisons();
+        // {0} is rejected by signature, {1, 2} is compared and found, {3, 4, 5} is
+        // in the range of weights but not reached
+        assertTrue(antichain.containsLesserOrEqual(StateSet.of(1, 2, 7)));
+        assertEquals(1, antichain.avoidedComparisons() - before);
+    }
+
+    @Test
+    void avoidedComparisonsOfAQueryThatScansAll() {
+        Antichain<StateSet> antichain = antichain();
+        long before = antichain.avoidedComparisons();
+        // {3, 4, 5} is too heavy, {0} and {1, 2} are rejected by signature
+        assertFalse(antichain.containsLesserOrEqual(StateSet.of(5, 6)));
+        assertEquals(3, antichain.avoidedComparisons() - before);
+        before = antichain.avoidedComparisons();
+        // {0} is too light, {1, 2} and {3, 4, 5} are rejected by signature
+        assertFalse(antichain.containsGreaterOrEqual(StateSet.of(1, 6)));
+        assertEquals(3, antichain.avoidedComparisons() - before);
+    }
+
+    @Test
+    void avoidedComparisonsOfAnUpdate() {
+        Antichain<StateSet> antichain = antichain();
+        long before = antichain.avoidedComparisons();
+        // the query rules out {1, 2} and {3, 4, 5} by weight and {0} by signature,
+        // the removal rules out {0} and {1, 2} by signature, and compares {3, 4, 5},
+        // which is removed
+        assertTrue(antichain.glbWith(StateSet.of(4)));
+        assertEquals(5, antichain.avoidedComparisons() - before);
+    }
+
+}
@@ -0,0 +1,87 @@
+package bait.algorithm;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+
+import bait.automata.BuchiAutomaton;
+import bait.preprocessing.Preprocessor;
+import bait.utility.Args;
+
+class AutomatonCacheTest {
+
+    private static final Path A = Path.of("test-automata/philsV3A.ba");
+    private static final Path B = Path.of("test-automata/philsV2B.ba");
+
+    @Test
+    void buildsTheSamePairOnce() throws IOException {
+        AutomatonCache cache = new AutomatonCache(8);
+        BuchiAutomaton[] first = cache.readPair(A, B);
+        assertEquals(0, cache.hits());
+        assertEquals(2, cache.misses());
+        BuchiAutomaton[] second = cache.readPair(A, B);
+        assertSame(first[0], second[0]);
+        assertSame(first[1], second[1]);
+        assertEquals(2, cache.hits());
+        assertEquals(2, cache.misses());
+    }
+
+    @Test
+    void readsAgainAFileThatChangedWithTheSameSizeAndTime() throws IOException {
+        Path a = Files.createTempFile("cached", ".ba");
+        Path b = Files.createTempFile("cached", ".ba");
+        a.toFile().deleteOnExit();
+        b.toFile().deleteOnExit();
+        // b accepts a^ω only, and a accepts a^ω before it changes and b^ω after
+        Files.writeString(b, "[0]\na,[0]->[0]\nb,[1]->[1]\n[0]\n");
+        Files.writeString(a, "[0]\na,[0]->[0]\n[0]\n");
+        FileTime time = Files.getLastModifiedTime(a);
+        AutomatonCache cache = new AutomatonCache(8);
+        BuchiAutomaton[] before = cache.readPair(a, b);
+        assertTrue(new BAInc(Args.of(a.toString(), b.toString())).run(before[0], before[1]));
+        // rewritten as cp -p would do, with the same size and modification time
+        Files.writeString(a, "[0]\nb,[0]->[0]\n[0]\n");
+        Files.setLastModifiedTime(a, time);
+        BuchiAutomaton[] after = cache.readPair(a, b);
+        assertNotSame(before[0], after[0]);
+        assertFalse(new BAInc(Args.of(a.toString(), b.toString())).run(after[0], after[1]));
+    }
+
+    @Test
+    void preprocessesAnAutomatonOnceForConcurrentQueries() throws Exception {
+        AutomatonCache cache = new AutomatonCache(8);
+        BuchiAutomaton a = cache.readPair(A, B)[0];
+        long misses = cache.misses();
+        Args args = Args.of(A.toString(), B.toString());
+        ExecutorService workers = Executors.newFixedThreadPool(4);
+        List<Future<BuchiAutomaton>> reduced = new ArrayList<>();
+        try {
+            for (int i = 0; i < 8; i++)
+                reduced.add(workers.submit(() -> cache.preprocess(new Preprocessor(args), a, "A")));
+            for (Future<BuchiAutomaton> automaton : reduced)
+                assertSame(reduced.get(0).get(), automaton.get());
+        } catch (ExecutionException e) {
+            throw (Exception) e.getCause();
+        } finally {
+            workers.shutdown();
+        }
+        assertEquals(misses + 1, cache.misses());
+        assertEquals(7, cache.hits());
+    }
+
+}
@@ -0,0 +1,110 @@
+package bait.algorithm;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import bait.automata.AutomatonParser.ParseError;
+import bait.utility.ArgsParser;
+import bait.utility.Json;
+import bait.utility.Settings;
+
+class BatchRunnerTest {
+
+    private static final String HEADER = "pair,a,b,repetition,included,parse_ms,preprocess_ms,run_ms,states_a,"
+            + "states_b,x_iterations,y_iterations,x_antichains_size,y_average_antichains_size,peak_heap_bytes";
+
+    @Test
+    void writesOneCsvRowForEachMeasuredRun() throws IOException {
+        List<String> lines = run(manifest(), "csv");
+        assertEquals(HEADER, lines.get(0));
+        // the pair with a missing automaton is skipped
+        assertEquals(5, lines.size());
+        String[] expectedIncluded = { "true", "true", "false", "false" };
+        for (int i = 1; i < lines.size(); i++) {
+            String[] values = lines.get(i).split(",");
+            assertEquals(15, values.length, lines.get(i));
+            assertEquals(String.valueOf((i - 1) % 2 + 1), values[3]);
+            assertEquals(expectedIncluded[i - 1], values[4]);
+        }
+        assertEquals("Specal_factors_are_unique", lines.get(1).split(",")[0]);
+    }
+
+    @Test
+    void writesAJsonArrayOfRows() throws IOException {
+        List<String> lines = run(manifest(), "json");
+        assertEquals("[", lines.get(0));
+        assertEquals("]", lines.get(lines.size() - 1));
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (String line : lines.subList(1, lines.size() - 1))
+            rows.add(Json.parseObject(line.endsWith(",") ? line.substring(0, line.length() - 1) : line));
+        assertEquals(4, rows.size());
+        for (Map<String, Object> row : rows)
+            assertEquals(Arrays.asList(HEADER.split(",")), new ArrayList<>(row.keySet()));
+        assertEquals(true, rows.get(0).get("included"));
+        assertEquals(2L, rows.get(1).get("repetition"));
+        assertEquals(false, rows.get(2).get("included"));
+    }
+
+    @Test
+    void pairsTheAutomataOfADirectoryByName() throws IOException {
+        Path directory = Files.createTempDirectory("batch");
+        for (String name : List.of("x_sub.ba", "x_sup.ba", "y_sub.ba", "z.ba"))
+            Files.writeString(directory.resolve(name), "[0]\n");
+        List<Path[]> pairs = BatchRunner.discoverPairs(directory);
+        assertEquals(1, pairs.size());
+        assertEquals(directory.resolve("x_sub.ba"), pairs.get(0)[0]);
+        assertEquals(directory.resolve("x_sup.ba"), pairs.get(0)[1]);
+    }
+
+    @Test
+    void rejectsAManifestLineWithoutTwoPaths() throws IOException {
+        Path manifest = Files.createTempFile("manifest", ".txt");
+        Files.writeString(manifest, "# pairs\n\nA.ba B.ba\nC.ba\n");
+        ParseError error = assertThrows(ParseError.class, () -> BatchRunner.readManifest(manifest));
+        assertTrue(error.getMessage().startsWith("Line 4 of"), error.getMessage());
+    }
+
+    private static Path manifest() throws IOException {
+        Path automata = Path.of("test-automata").toAbsolutePath();
+        Path manifest = Files.createTempFile("manifest", ".txt");
+        Files.writeString(manifest,
+                automata.resolve("Specal_factors_are_unique_sub.autfilt.ba") + " "
+                        + automata.resolve("Specal_factors_are_unique_sup.autfilt.aligned.ba") + "\n"
+                        + automata.resolve("philsV3A.ba") + " " + automata.resolve("philsV2B.ba") + "\n"
+                        + automata.resolve("missing.ba") + " " + automata.resolve("philsV2B.ba") + "\n");
+        return manifest;
+    }
+
+    /**
+     * @return the lines written on the standard output by the batch runner, with
+     *         no warmup and two measured runs of each pair
+     */
+    private static List<String> run(Path source, String format) throws IOException {
+        PrintStream standardOutput = System.out;
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(output, true, StandardCharsets.UTF_8));
+        try {
+            new BatchRunner().run(ArgsParser.parseArgs(new String[] { Settings.BATCH_FLAG_NAME, source.toString(),
+                    Settings.FORMAT_FLAG_NAME, format, Settings.WARMUP_FLAG_NAME, "0",
+                    Settings.REPETITIONS_FLAG_NAME, "2" }));
+        } finally {
+            System.setOut(standardOutput);
+        }
+        return Arrays.asList(output.toString(StandardCharsets.UTF_8).split("\\R"));
+    }
+
+}
@@ -0,0 +1,54 @@
+package bait.algorithm;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+
+import bait.automata.BuchiAutomaton;
+import bait.automata.AutomatonParser.ParseError;
+import bait.preprocessing.Preprocessor;
+import bait.utility.Args;
+
+/**
+ * Pins the X vector computed by the engines. The kleene engine stops when the
+ * new vector adds no element that is not subsumed by one of the old vector,
+ * that is when each new element is greater or equal than an old one: with the
+ * comparison the other way around it used to stop before the least fixpoint.
+ */
+class FixpointTest {
+
+    private static final String A = "test-automata/philsV3A.ba";
+    private static final String B = "test-automata/philsV2B.ba";
+    // elements in the antichains of the least fixpoint X of A and B
+    private static final double X_SIZE = 161;
+
+    @Test
+    void kleeneReachesTheLeastFixpoint() throws IOException, ParseError {
+        BAInc inclusionAlgorithm = run(Args.Engine.KLEENE);
+        assertEquals(X_SIZE, inclusionAlgorithm.getXSize());
+        assertEquals(18.0, inclusionAlgorithm.getXIterations());
+    }
+
+    @Test
+    void allEnginesReachTheSameFixpoint() throws IOException, ParseError {
+        for (Args.Engine engine : Args.Engine.values())
+            assertEquals(X_SIZE, run(engine).getXSize(), engine.toString());
+    }
+
+    private static BAInc run(Args.Engine engine) throws IOException, ParseError {
+        Args args = Args.of(A, B);
+        args.setEngine(engine);
+        BuchiAutomaton[] automata = Runner.readPair(Path.of(A), Path.of(B));
+        Preprocessor preprocessor = new Preprocessor(args);
+        BuchiAutomaton a = preprocessor.preprocess(automata[0], "A");
+        BuchiAutomaton b = preprocessor.preprocess(automata[1], "B");
+        BAInc inclusionAlgorithm = new BAInc(args);
+        assertFalse(inclusionAlgorithm.run(a, b));
+        return inclusionAlgorithm;
+    }
+
+}
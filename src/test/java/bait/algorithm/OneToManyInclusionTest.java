@@ -0,0 +1,69 @@
+package bait.algorithm;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import bait.automata.Alphabet;
+import bait.automata.AutomatonSource;
+import bait.automata.BuchiAutomaton;
+import bait.collections.Interner;
+import bait.utility.Args;
+
+class OneToManyInclusionTest {
+
+    private static final Path AUTOMATA = Path.of("test-automata");
+    private static final List<String> A = List.of("identityA.ba", "identity2A.ba", "identity2B.ba", "thesisA.ba",
+            "dead-statesA.ba");
+    private static final String B = "identityB.ba";
+
+    @Test
+    void checksEachAutomatonOnceInParallel() throws IOException, InterruptedException {
+        List<AutomatonSource> sources = new ArrayList<>();
+        for (String name : A)
+            sources.add(Runner.readAutomaton(AUTOMATA.resolve(name), new Interner<>()));
+        AutomatonSource sourceB = Runner.readAutomaton(AUTOMATA.resolve(B), new Interner<>());
+        Alphabet alphabet = sourceB.alphabet();
+        for (AutomatonSource source : sources)
+            alphabet = Alphabet.merge(alphabet, source.alphabet());
+        List<BuchiAutomaton> automata = new ArrayList<>();
+        for (AutomatonSource source : sources)
+            automata.add(source.build(alphabet));
+        BuchiAutomaton b = sourceB.build(alphabet);
+        Args args = Args.of(AUTOMATA.resolve(A.get(0)).toString(), AUTOMATA.resolve(B).toString());
+        args.setWorkers(3);
+        OneToManyInclusion inclusion = new OneToManyInclusion(args, b);
+
+        Boolean[] included = new Boolean[automata.size()];
+        inclusion.checkAll(automata, result -> {
+            assertNull(result.error());
+            assertNull(included[result.index()]);
+            included[result.index()] = result.included();
+        });
+        for (int i = 0; i < automata.size(); i++)
+            assertEquals(new BAInc(args).run(automata.get(i), b), included[i], A.get(i));
+    }
+
+    @Test
+    void reportsAnAutomatonOverAnotherAlphabetAsAnError() throws IOException, InterruptedException {
+        AutomatonSource source = Runner.readAutomaton(AUTOMATA.resolve(A.get(0)), new Interner<>());
+        AutomatonSource sourceB = Runner.readAutomaton(AUTOMATA.resolve(B), new Interner<>());
+        Alphabet alphabet = Alphabet.merge(source.alphabet(), sourceB.alphabet());
+        Args args = Args.of(AUTOMATA.resolve(A.get(0)).toString(), AUTOMATA.resolve(B).toString());
+        OneToManyInclusion inclusion = new OneToManyInclusion(args, sourceB.build(alphabet));
+        List<OneToManyInclusion.Result> results = new ArrayList<>();
+        Alphabet larger = Alphabet.merge(alphabet, Alphabet.of(Set.of("not-in-b")));
+        inclusion.checkAll(List.of(source.build(alphabet), source.build(larger)), results::add);
+        assertEquals(2, results.size());
+        for (OneToManyInclusion.Result result : results)
+            assertEquals(result.index() == 1, result.error() != null, String.valueOf(result.error()));
+    }
+
+}
@@ -0,0 +1,78 @@
+package bait.algorithm;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import bait.automata.BuchiAutomaton;
+import bait.utility.Args;
+import bait.utility.ArgsParser;
+import bait.utility.Json;
+import bait.utility.Settings;
+
+class OneToManyRunnerTest {
+
+    private static final Path AUTOMATA = Path.of("test-automata");
+    private static final List<String> A = List.of("identityA.ba", "identity2A.ba", "identity2B.ba", "thesisA.ba",
+            "dead-statesA.ba", "concur11A.ba", "empty-into-somethingA.ba");
+    private static final String B = "identityB.ba";
+
+    @ParameterizedTest
+    @ValueSource(strings = { "--engine kleene", "--engine shared", "--order simulation" })
+    void givesTheVerdictsOfThePairwiseChecks(String options) throws IOException {
+        Path directory = Files.createTempDirectory("many");
+        for (String name : A)
+            Files.copy(AUTOMATA.resolve(name), directory.resolve(name));
+        Files.writeString(directory.resolve("broken.ba"), "[0]\na,[0]->[1]\n[1]\nb,[1]->[0]\n");
+        Path b = AUTOMATA.resolve(B);
+        List<Map<String, Object>> rows = run(options + " " + Settings.MANY_FLAG_NAME + " " + directory + " "
+                + Settings.SECOND_AUTOMATON_FLAG_NAME + " " + b + " " + Settings.WORKERS_FLAG_NAME + " 3");
+        assertEquals(A.size() + 1, rows.size());
+        Map<String, Object> errors = new HashMap<>();
+        for (Map<String, Object> row : rows) {
+            Path a = Path.of((String) row.get("a"));
+            if (row.containsKey("error")) {
+                errors.put(a.getFileName().toString(), row.get("error"));
+                continue;
+            }
+            Args arguments = ArgsParser.parseArgs((options + " " + Settings.FIRST_AUTOMATON_FLAG_NAME + " " + a + " "
+                    + Settings.SECOND_AUTOMATON_FLAG_NAME + " " + b).split(" "));
+            BuchiAutomaton[] automata = Runner.readPair(a, b);
+            assertEquals(new BAInc(arguments).run(automata[0], automata[1]), row.get("included"), a.toString());
+        }
+        assertEquals(List.of("broken.ba"), List.copyOf(errors.keySet()));
+        assertTrue(((String) errors.get("broken.ba")).contains("line 4"), errors.toString());
+    }
+
+    /**
+     * @return the rows written on the standard output by the runner
+     */
+    private static List<Map<String, Object>> run(String arguments) throws IOException {
+        PrintStream standardOutput = System.out;
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(output, true, StandardCharsets.UTF_8));
+        try {
+            new OneToManyRunner().run(ArgsParser.parseArgs(arguments.split(" ")));
+        } finally {
+            System.setOut(standardOutput);
+        }
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (String line : output.toString(StandardCharsets.UTF_8).split("\\R"))
+            rows.add(Json.parseObject(line));
+        return rows;
+    }
+
+}
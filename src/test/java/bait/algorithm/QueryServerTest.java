@@ -0,0 +1,118 @@
+package bait.algorithm;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import bait.automata.BinaryAutomatonFormat;
+import bait.automata.Simulation;
+import bait.utility.Args;
+import bait.utility.Json;
+
+class QueryServerTest {
+
+    private static final String A = "test-automata/philsV3A.ba";
+    private static final String B = "test-automata/philsV2B.ba";
+
+    @Test
+    void answersEachQueryWithItsId() throws IOException {
+        Map<Object, Map<String, Object>> answers = serve(List.of(
+                "{\"id\": 1, \"a\": \"" + A + "\", \"b\": \"" + B + "\"}",
+                "",
+                "{\"id\": \"two\", \"a\": \"" + B + "\", \"b\": \"" + B + "\", \"engine\": \"worklist\"}"));
+        assertEquals(2, answers.size());
+        assertEquals(false, answers.get(1L).get("included"));
+        assertEquals(true, answers.get("two").get("included"));
+        assertTrue(answers.get(1L).get("run_ms") instanceof Long);
+    }
+
+    @Test
+    void answersAMalformedQueryWithAnError() throws IOException {
+        Map<Object, Map<String, Object>> answers = serve(
+                List.of("{\"id\": 1, \"a\": ", "{\"id\": 2, \"a\": \"" + A + "\"}", "{\"id\": 3, \"a\": \"" + A
+                        + "\", \"b\": \"" + B + "\", \"engine\": \"fastest\"}"));
+        assertTrue(((String) answers.get(null).get("error")).startsWith("Malformed JSON"));
+        assertEquals("\"b\" must be a string", answers.get(2L).get("error"));
+        assertEquals("Unknown engine \"fastest\"", answers.get(3L).get("error"));
+    }
+
+    @Test
+    void answersAMissingFileWithAnError() throws IOException {
+        Map<Object, Map<String, Object>> answers = serve(
+                List.of("{\"id\": 1, \"a\": \"test-automata/missing.ba\", \"b\": \"" + B + "\"}"));
+        assertEquals("File test-automata/missing.ba does not exist", answers.get(1L).get("error"));
+    }
+
+    @Test
+    void answersACorruptedFileWithAnError() throws IOException {
+        Path corrupted = Files.createTempFile("corrupted", ".bab");
+        corrupted.toFile().deleteOnExit();
+        // a valid header followed by string offsets that point out of the file
+        ByteBuffer header = ByteBuffer.allocate(8 * Integer.BYTES);
+        header.putInt(BinaryAutomatonFormat.MAGIC).putInt(BinaryAutomatonFormat.VERSION).putInt(1).putInt(1)
+                .putInt(0).putInt(0).putInt(0).putInt(1 << 20);
+        Files.write(corrupted, header.array());
+        Map<Object, Map<String, Object>> answers = serve(
+                List.of("{\"id\": 1, \"a\": \"" + corrupted + "\", \"b\": \"" + B + "\"}",
+                        "{\"id\": 2, \"a\": \"" + A + "\", \"b\": \"" + B + "\"}"));
+        assertTrue(((String) answers.get(1L).get("error")).contains("corrupted"), answers.get(1L).toString());
+        // the server goes on answering
+        assertEquals(false, answers.get(2L).get("included"));
+    }
+
+    @Test
+    void turnsOffTheQuotientOfTheServer() throws IOException {
+        Args arguments = Args.of(A, B);
+        arguments.setQuotient(Simulation.Kind.DELAYED);
+        Map<Object, Map<String, Object>> answers = serve(arguments,
+                List.of("{\"id\": 1, \"a\": \"" + A + "\", \"b\": \"" + B + "\", \"quotient\": \"none\"}",
+                        "{\"id\": 2, \"a\": \"" + B + "\", \"b\": \"" + B + "\", \"quotient\": null}",
+                        "{\"id\": 3, \"a\": \"" + A + "\", \"b\": \"" + B + "\", \"quotient\": \"direct\"}"));
+        assertEquals(false, answers.get(1L).get("included"), answers.get(1L).toString());
+        assertEquals(true, answers.get(2L).get("included"), answers.get(2L).toString());
+        assertEquals(false, answers.get(3L).get("included"), answers.get(3L).toString());
+    }
+
+    private static Map<Object, Map<String, Object>> serve(List<String> lines) throws IOException {
+        return serve(Args.of(A, B), lines);
+    }
+
+    /**
+     * @return the answers of a server, started with the given options, to the
+     *         given lines on stdin, by id
+     */
+    private static Map<Object, Map<String, Object>> serve(Args arguments, List<String> lines) throws IOException {
+        InputStream standardInput = System.in;
+        PrintStream standardOutput = System.out;
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        System.setIn(new ByteArrayInputStream(String.join("\n", lines).getBytes(StandardCharsets.UTF_8)));
+        System.setOut(new PrintStream(output, true, StandardCharsets.UTF_8));
+        try {
+            new QueryServer(arguments).serve();
+        } finally {
+            System.setIn(standardInput);
+            System.setOut(standardOutput);
+        }
+        Map<Object, Map<String, Object>> answers = new HashMap<>();
+        for (String line : output.toString(StandardCharsets.UTF_8).split("\\R")) {
+            Map<String, Object> answer = Json.parseObject(line);
+            answers.put(answer.get("id"), answer);
+        }
+        return answers;
+    }
+
+}
@@ -0,0 +1,112 @@
+package bait.automata;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.zip.GZIPOutputStream;
+
+import org.junit.jupiter.api.Test;
+
+import bait.automata.AutomatonParser.ParseError;
+import bait.collections.Interner;
+
+class AutomatonParserTest {
+
+    private static final String SOURCE = "[0]\na,[0]->[1]\nb,[1]->[0]\na,[0]->[1]\n[1]\n";
+
+    @Test
+    void readsTheComponents() throws IOException {
+        BuchiAutomaton automaton = build(read(SOURCE));
+        assertEquals("[0]", automaton.initialState().toString());
+        assertEquals(2, automaton.numberOfStates());
+        assertEquals(Set.of("[1]"), names(automaton.finalStates()));
+        // the duplicated edge is stored once
+        assertEquals(2, automaton.successors.length);
+        assertEquals(3, read(SOURCE).numberOfEdges());
+    }
+
+    @Test
+    void detectsGzipFromTheMagicNumber() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(bytes)) {
+            gzip.write(SOURCE.getBytes(StandardCharsets.UTF_8));
+        }
+        assertSameAutomaton(build(read(SOURCE)), build(read(new ByteArrayInputStream(bytes.toByteArray()))));
+    }
+
+    @Test
+    void acceptsCrlfLineEndings() throws IOException {
+        assertSameAutomaton(build(read(SOURCE)), build(read(SOURCE.replace("\n", "\r\n"))));
+    }
+
+    @Test
+    void ignoresTrailingBlankLines() throws IOException {
+        assertSameAutomaton(build(read(SOURCE)), build(read(SOURCE + "\n\n")));
+        // without final states all the states are final
+        BuchiAutomaton automaton = build(read("[0]\na,[0]->[1]\n\n\n"));
+        assertEquals(Set.of("[0]", "[1]"), names(automaton.finalStates()));
+    }
+
+    @Test
+    void parsesBlankLinesInTheMiddle() throws IOException {
+        // the blank line ends the edges and names a final state
+        BuchiAutomaton automaton = build(read("[0]\na,[0]->[1]\n\n[1]\n"));
+        assertEquals(Set.of("", "[1]"), names(automaton.finalStates()));
+        assertEquals(3, automaton.numberOfStates());
+    }
+
+    @Test
+    void reportsTheLineOfAParseError() {
+        ParseError error = assertThrows(ParseError.class, () -> read("[0]\na,[0]->[1]\n[1]\nb,[1]->[0]\n"));
+        assertTrue(error.getMessage().contains("line 4"), error.getMessage());
+    }
+
+    @Test
+    void rejectsSymbolsOutsideTheAlphabet() throws IOException {
+        ParsedAutomaton parsed = read(SOURCE);
+        assertThrows(AutomatonBuilder.BuildError.class, () -> parsed.build(Alphabet.of(Set.of("a"))));
+    }
+
+    private static ParsedAutomaton read(String source) throws IOException {
+        return read(new ByteArrayInputStream(source.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static ParsedAutomaton read(InputStream input) throws IOException {
+        return AutomatonParser.read(input, new Interner<>());
+    }
+
+    private static BuchiAutomaton build(ParsedAutomaton parsed) {
+        return parsed.build(parsed.alphabet());
+    }
+
+    private static void assertSameAutomaton(BuchiAutomaton expected, BuchiAutomaton actual) {
+        assertEquals(expected.initialState().toString(), actual.initialState().toString());
+        assertEquals(names(expected.states()), names(actual.states()));
+        assertEquals(names(expected.finalStates()), names(actual.finalStates()));
+        assertEquals(expected.alphabet(), actual.alphabet());
+        for (int s = 0; s < expected.numberOfStates(); s++)
+            for (int a = 0; a < expected.alphabet().size(); a++) {
+                assertEquals(expected.successorsEnd(s, a) - expected.successorsBegin(s, a),
+                        actual.successorsEnd(s, a) - actual.successorsBegin(s, a));
+                for (int i = expected.successorsBegin(s, a); i < expected.successorsEnd(s, a); i++)
+                    assertEquals(expected.state(expected.successor(i)).toString(),
+                            actual.state(actual.successor(i)).toString());
+            }
+    }
+
+    private static Set<String> names(Set<State> states) {
+        Set<String> names = new TreeSet<>();
+        for (State state : states)
+            names.add(state.toString());
+        return names;
+    }
+
+}
@@ -0,0 +1,129 @@
+package bait.automata;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+
+import bait.algorithm.BAInc;
+import bait.automata.AutomatonParser.ParseError;
+import bait.collections.Interner;
+import bait.preprocessing.Preprocessor;
+import bait.utility.Args;
+
+class BinaryAutomatonFormatTest {
+
+    @Test
+    void roundTripKeepsTheAutomaton() throws IOException {
+        ParsedAutomaton parsed = AutomatonParser.read(Path.of("test-automata/philsV2B.ba"), new Interner<>());
+        BuchiAutomaton automaton = parsed.build(parsed.alphabet());
+        BuchiAutomaton loaded = load(write(automaton));
+        assertEquals(automaton.alphabet(), loaded.alphabet());
+        assertEquals(automaton.numberOfStates(), loaded.numberOfStates());
+        assertEquals(automaton.initialState().toString(), loaded.initialState().toString());
+        assertEquals(automaton.finalStatesSet(), loaded.finalStatesSet());
+        for (int s = 0; s < automaton.numberOfStates(); s++) {
+            assertEquals(automaton.state(s).toString(), loaded.state(s).toString());
+            for (int a = 0; a < automaton.alphabet().size(); a++) {
+                assertEquals(automaton.successorsBegin(s, a), loaded.successorsBegin(s, a));
+                assertEquals(automaton.predecessorsBegin(s, a), loaded.predecessorsBegin(s, a));
+            }
+        }
+        for (int i = 0; i < automaton.successors.length; i++) {
+            assertEquals(automaton.successor(i), loaded.successor(i));
+            assertEquals(automaton.predecessors[i], loaded.predecessors[i]);
+        }
+    }
+
+    @Test
+    void checksTheConvertedAutomataWithTheSameVerdicts() throws IOException {
+        assertTrue(checkConverted("test-automata/Specal_factors_are_unique_sub.autfilt.ba",
+                "test-automata/Specal_factors_are_unique_sup.autfilt.aligned.ba"));
+        assertFalse(checkConverted("test-automata/philsV3A.ba", "test-automata/philsV2B.ba"));
+    }
+
+    @Test
+    void rejectsATruncatedFile() throws IOException {
+        assertCorrupted(bytes -> bytes.limit(bytes.limit() - Integer.BYTES));
+    }
+
+    @Test
+    void rejectsSizesThatOverflow() throws IOException {
+        assertCorrupted(bytes -> bytes.putInt(8, Integer.MAX_VALUE).putInt(12, Integer.MAX_VALUE));
+        assertCorrupted(bytes -> bytes.putInt(16, -1));
+    }
+
+    @Test
+    void rejectsAnInitialStateOutOfRange() throws IOException {
+        assertCorrupted(bytes -> bytes.putInt(20, bytes.getInt(12)));
+    }
+
+    @Test
+    void rejectsStringOffsetsOutOfRange() throws IOException {
+        // the end of the first symbol in the table of the symbols
+        assertCorrupted(bytes -> bytes.putInt(28, Integer.MAX_VALUE));
+        assertCorrupted(bytes -> bytes.putInt(28, -1));
+    }
+
+    @Test
+    void rejectsTransitionsOutOfRange() throws IOException {
+        // the last predecessor
+        assertCorrupted(bytes -> bytes.putInt(bytes.limit() - Integer.BYTES, bytes.getInt(12)));
+        // the last offset of the predecessors
+        assertCorrupted(bytes -> bytes.putInt(bytes.limit() - (bytes.getInt(16) + 1) * Integer.BYTES,
+                bytes.getInt(16) + 1));
+    }
+
+    private interface Corruption {
+        ByteBuffer apply(ByteBuffer bytes);
+    }
+
+    private static void assertCorrupted(Corruption corruption) throws IOException {
+        ParsedAutomaton parsed = AutomatonParser.read(Path.of("test-automata/thesisA.ba"), new Interner<>());
+        Path path = write(parsed.build(parsed.alphabet()));
+        ByteBuffer bytes = corruption.apply(ByteBuffer.wrap(Files.readAllBytes(path)));
+        byte[] corrupted = new byte[bytes.limit()];
+        bytes.position(0);
+        bytes.get(corrupted);
+        Files.write(path, corrupted);
+        assertThrows(ParseError.class, () -> BinaryAutomatonFormat.load(path));
+    }
+
+    private static boolean checkConverted(String a, String b) throws IOException {
+        Interner<String> names = new Interner<>();
+        ParsedAutomaton parsedA = AutomatonParser.read(Path.of(a), names);
+        ParsedAutomaton parsedB = AutomatonParser.read(Path.of(b), names);
+        Alphabet alphabet = Alphabet.merge(parsedA.alphabet(), parsedB.alphabet());
+        boolean expected = check(Args.of(a, b), parsedA.build(alphabet), parsedB.build(alphabet));
+        BinaryAutomatonFormat.MappedAutomaton loadedA = BinaryAutomatonFormat.load(write(parsedA.build(alphabet)));
+        BinaryAutomatonFormat.MappedAutomaton loadedB = BinaryAutomatonFormat.load(write(parsedB.build(alphabet)));
+        boolean converted = check(Args.of(a, b), loadedA.build(alphabet), loadedB.build(alphabet));
+        assertEquals(expected, converted);
+        return converted;
+    }
+
+    private static boolean check(Args args, BuchiAutomaton a, BuchiAutomaton b) {
+        Preprocessor preprocessor = new Preprocessor(args);
+        return new BAInc(args).run(preprocessor.preprocess(a, "A"), preprocessor.preprocess(b, "B"));
+    }
+
+    private static Path write(BuchiAutomaton automaton) throws IOException {
+        Path path = Files.createTempFile("automaton", ".bab");
+        path.toFile().deleteOnExit();
+        BinaryAutomatonFormat.write(automaton, path);
+        return path;
+    }
+
+    private static BuchiAutomaton load(Path path) throws IOException {
+        BinaryAutomatonFormat.MappedAutomaton mapped = BinaryAutomatonFormat.load(path);
+        return mapped.build(mapped.alphabet());
+    }
+
+}
@@ -0,0 +1,54 @@
+package bait.automata;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+
+import bait.collections.Interner;
+
+class SimulationTest {
+
+    // [p] is final at each step, [q] every other step, and [d] never
+    private static final String SOURCE = "[p]\na,[p]->[p]\na,[q]->[r]\na,[r]->[q]\na,[d]->[d]\nb,[d]->[d]\n[p]\n[r]\n";
+
+    @Test
+    void delayedSimulationWaitsForTheFinalStates() {
+        BuchiAutomaton automaton = AutomatonParser.parse(SOURCE, AutomatonParser.parseAlphabet(SOURCE));
+        int p = index(automaton, "[p]");
+        int q = index(automaton, "[q]");
+        int d = index(automaton, "[d]");
+        Simulation direct = Simulation.of(automaton, Simulation.Kind.DIRECT);
+        Simulation delayed = Simulation.of(automaton, Simulation.Kind.DELAYED);
+        assertTrue(direct.simulates(p, q));
+        assertFalse(direct.simulates(q, p));
+        assertTrue(delayed.simulates(q, p));
+        // [d] has every move of [p], but it never visits a final state
+        assertFalse(delayed.simulates(d, p));
+        // [p] cannot answer the moves of [d] on b
+        assertFalse(delayed.simulates(p, d));
+    }
+
+    @Test
+    void directSimulationIsContainedInDelayedSimulation() throws IOException {
+        ParsedAutomaton parsed = AutomatonParser.read(Path.of("test-automata/philsV3A.ba"), new Interner<>());
+        BuchiAutomaton automaton = parsed.build(parsed.alphabet());
+        Simulation direct = Simulation.of(automaton, Simulation.Kind.DIRECT);
+        Simulation delayed = Simulation.of(automaton, Simulation.Kind.DELAYED);
+        for (int p = 0; p < automaton.numberOfStates(); p++) {
+            assertTrue(direct.simulators(p).isSubsetOf(delayed.simulators(p)));
+            assertTrue(delayed.simulates(p, p));
+        }
+    }
+
+    private static int index(BuchiAutomaton automaton, String identifier) {
+        for (State state : automaton.states())
+            if (state.toString().equals(identifier))
+                return state.getIntIndex();
+        throw new IllegalArgumentException(identifier);
+    }
+
+}
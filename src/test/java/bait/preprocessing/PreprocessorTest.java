@@ -0,0 +1,66 @@
+package bait.preprocessing;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import bait.algorithm.BAInc;
+import bait.automata.Alphabet;
+import bait.automata.AutomatonParser;
+import bait.automata.BuchiAutomaton;
+import bait.utility.Args;
+
+class PreprocessorTest {
+
+    private static final Alphabet ALPHABET = AutomatonParser.parseAlphabet("[0]\na,[0]->[0]\nb,[0]->[0]\n");
+    // a* b^ω
+    private static final String LIVE = "[0]\na,[0]->[0]\nb,[0]->[1]\nb,[1]->[1]\n[1]\n";
+    // the final state [2] is on no cycle, so no word is accepted
+    private static final String USELESS_INITIAL_STATE = "[0]\na,[0]->[1]\nb,[1]->[2]\na,[1]->[0]\n[2]\n";
+
+    @Test
+    void uselessInitialStateGivesTheEmptyLanguage() {
+        BuchiAutomaton empty = preprocess(USELESS_INITIAL_STATE);
+        assertEquals(1, empty.numberOfStates());
+        assertTrue(empty.finalStatesSet().isEmpty());
+        assertEquals(0, empty.successorsEnd(0) - empty.successorsBegin(0));
+        assertTrue(check(empty, preprocess(LIVE)));
+        assertFalse(check(preprocess(LIVE), empty));
+    }
+
+    @Test
+    void trimmingKeepsTheLanguage() {
+        // [2] is not reachable and [3] reaches no accepting cycle
+        String source = "[0]\na,[0]->[0]\nb,[0]->[1]\nb,[1]->[1]\na,[2]->[1]\na,[1]->[3]\n[1]\n";
+        BuchiAutomaton trimmed = preprocess(source);
+        assertEquals(2, trimmed.numberOfStates());
+        assertTrue(check(trimmed, preprocess(LIVE)));
+        assertTrue(check(preprocess(LIVE), trimmed));
+    }
+
+    @Test
+    void reportsOnlyTheReductionsThatRemoveStates() {
+        Preprocessor preprocessor = new Preprocessor(args());
+        preprocessor.preprocess(AutomatonParser.parse(LIVE, ALPHABET), "A");
+        preprocessor.preprocess(AutomatonParser.parse(USELESS_INITIAL_STATE, ALPHABET), "B");
+        List<String> report = preprocessor.report();
+        assertEquals(List.of("Trimming of useless states shrank B from 3 to 1 states"), report);
+    }
+
+    private static BuchiAutomaton preprocess(String source) {
+        return new Preprocessor(args()).preprocess(AutomatonParser.parse(source, ALPHABET), "A");
+    }
+
+    private static boolean check(BuchiAutomaton a, BuchiAutomaton b) {
+        return new BAInc(args()).run(a, b);
+    }
+
+    private static Args args() {
+        return Args.of("A.ba", "B.ba");
+    }
+
+}
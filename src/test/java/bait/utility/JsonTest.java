@@ -0,0 +1,55 @@
+package bait.utility;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+class JsonTest {
+
+    @Test
+    void parsesTheValuesOfAFlatObject() {
+        Map<String, Object> members = Json
+                .parseObject(" { \"id\": 7, \"ratio\": -1.5e2, \"ok\": true, \"no\": false, \"none\": null, \"s\": \"x\" } ");
+        assertEquals(List.of("id", "ratio", "ok", "no", "none", "s"), List.copyOf(members.keySet()));
+        assertEquals(7L, members.get("id"));
+        assertEquals(-150.0, members.get("ratio"));
+        assertEquals(true, members.get("ok"));
+        assertEquals(false, members.get("no"));
+        assertEquals(null, members.get("none"));
+        assertEquals("x", members.get("s"));
+        assertTrue(Json.parseObject("{}").isEmpty());
+    }
+
+    @Test
+    void unescapesStrings() {
+        Map<String, Object> members = Json.parseObject("{\"s\": \"a\\\"b\\\\c\\n\\u00e8\\/\"}");
+        assertEquals("a\"b\\c\nè/", members.get("s"));
+    }
+
+    @Test
+    void writesObjectsThatAreReadBack() {
+        Map<String, Object> members = new LinkedHashMap<>();
+        members.put("path", "dir\\with \"quotes\"\tand tabs");
+        members.put("included", true);
+        members.put("run_ms", 12L);
+        members.put("id", null);
+        String object = Json.object(members);
+        assertEquals("{\"path\": \"dir\\\\with \\\"quotes\\\"\\u0009and tabs\", \"included\": true, \"run_ms\": 12, "
+                + "\"id\": null}", object);
+        assertEquals(members, Json.parseObject(object));
+    }
+
+    @Test
+    void rejectsMalformedObjects() {
+        for (String line : List.of("", "[1]", "{\"a\" 1}", "{\"a\": 1,}", "{\"a\": 1} x", "{\"a\": \"b}",
+                "{\"a\": {\"b\": 1}}", "{\"a\": tru}", "{\"a\": \"\\u12\"}", "{a: 1}"))
+            assertThrows(IllegalArgumentException.class, () -> Json.parseObject(line), line);
+    }
+
+}